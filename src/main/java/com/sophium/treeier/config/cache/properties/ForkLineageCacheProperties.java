@@ -0,0 +1,22 @@
+package com.sophium.treeier.config.cache.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.cache.fork-lineage")
+public class ForkLineageCacheProperties {
+
+    private long maxSize = 10_000;
+
+    /**
+     * Bounds how long forks created or deleted through another instance may be missing from a cached lineage.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
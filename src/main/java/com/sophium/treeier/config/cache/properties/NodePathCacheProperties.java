@@ -0,0 +1,22 @@
+package com.sophium.treeier.config.cache.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.cache.node-path")
+public class NodePathCacheProperties {
+
+    private long maxSize = 50_000;
+
+    /**
+     * Bounds how long a path changed through another instance may be served.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
@@ -0,0 +1,23 @@
+package com.sophium.treeier.config.cache.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.cache.tree-acl")
+public class TreeAclCacheProperties {
+
+    private long maxSize = 10_000;
+
+    /**
+     * Bounds how long another instance may act on an ACL that was changed elsewhere, e.g. let a revoked editor
+     * keep editing. Kept short because reloading an ACL costs two id-only queries.
+     */
+    private Duration expireAfterWrite = Duration.ofSeconds(30);
+}
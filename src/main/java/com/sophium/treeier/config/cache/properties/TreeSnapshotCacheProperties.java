@@ -0,0 +1,22 @@
+package com.sophium.treeier.config.cache.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.cache.tree-snapshot")
+public class TreeSnapshotCacheProperties {
+
+    /**
+     * Upper bound for the summed weight of cached snapshots, where a tree with nodes weighs its node count.
+     */
+    private long maxWeight = 200_000;
+
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
@@ -0,0 +1,18 @@
+package com.sophium.treeier.config.changelog.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.changelog")
+public class ChangelogProperties {
+
+    /**
+     * Rows per multi-row insert.
+     */
+    private int batchSize = 500;
+}
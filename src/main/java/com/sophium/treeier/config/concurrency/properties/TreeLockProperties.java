@@ -0,0 +1,22 @@
+package com.sophium.treeier.config.concurrency.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.tree-lock")
+public class TreeLockProperties {
+
+    /**
+     * Number of lock stripes, rounded up to a power of two. Trees only contend when they hash to the same stripe.
+     */
+    private int stripes = 256;
+
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,28 @@
+package com.sophium.treeier.config.deletion.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.node-deletion")
+public class NodeDeletionProperties {
+
+    /**
+     * Maximum number of nodes removed by one set of delete statements.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Subtrees with at least this many nodes are detached from their tree at once and purged in the background.
+     * Smaller subtrees are deleted inside the caller's transaction. Zero deletes every subtree synchronously.
+     */
+    private int asyncPurgeThreshold = 1000;
+
+    private Duration purgeInterval = Duration.ofSeconds(1);
+}
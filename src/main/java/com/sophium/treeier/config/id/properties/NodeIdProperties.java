@@ -0,0 +1,19 @@
+package com.sophium.treeier.config.id.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.node-id")
+public class NodeIdProperties {
+
+    /**
+     * Identifier of this instance (0-15). Required: instances sharing a worker id generate the same node ids, so
+     * every running instance must be given its own value.
+     */
+    private Integer workerId;
+}
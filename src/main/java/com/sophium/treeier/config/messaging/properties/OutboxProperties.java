@@ -0,0 +1,22 @@
+package com.sophium.treeier.config.messaging.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.outbox")
+public class OutboxProperties {
+
+    /**
+     * Maximum number of events dispatched per transaction.
+     */
+    private int batchSize = 500;
+
+    private Duration pollInterval = Duration.ofMillis(100);
+}
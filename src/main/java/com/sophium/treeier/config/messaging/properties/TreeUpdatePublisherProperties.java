@@ -0,0 +1,26 @@
+package com.sophium.treeier.config.messaging.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.websocket.coalescing")
+public class TreeUpdatePublisherProperties {
+
+    /**
+     * How long events of one tree are collected before they are sent as a single frame. Zero sends every event
+     * on its own, as a plain {@code TreeUpdateNotification}.
+     */
+    private Duration window = Duration.ofMillis(100);
+
+    /**
+     * A frame is sent early once it holds this many events.
+     */
+    private int maxBatchSize = 1000;
+}
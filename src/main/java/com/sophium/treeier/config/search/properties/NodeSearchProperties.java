@@ -0,0 +1,39 @@
+package com.sophium.treeier.config.search.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.search.nodes")
+public class NodeSearchProperties {
+
+    /**
+     * Number of trees indexed concurrently when the index is rebuilt at startup.
+     */
+    private int rebuildParallelism = 4;
+
+    /**
+     * How often new entries of the node change feed are applied to the index.
+     */
+    private Duration refreshInterval = Duration.ofMillis(500);
+
+    /**
+     * How long entries of the node change feed are kept for instances to catch up.
+     */
+    private Duration changeRetention = Duration.ofHours(1);
+
+    private Duration purgeInterval = Duration.ofMinutes(1);
+
+    /**
+     * Queries shorter than this return no hits, as very short prefixes match most of the index.
+     */
+    private int minQueryLength = 2;
+
+    private int maxResults = 100;
+}
@@ -0,0 +1,27 @@
+package com.sophium.treeier.config.search.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "treeier.search.users")
+public class UserSearchProperties {
+
+    /**
+     * How often users registered through other instances are picked up.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    /**
+     * Deepest position, page offset included, that a search can page to.
+     */
+    private int maxResults = 1000;
+
+    private int maxPageSize = 100;
+}
@@ -0,0 +1,56 @@
+package com.sophium.treeier.config.threads;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Reports the request threading mode at startup.
+ * <p>
+ * {@code spring.threads.virtual.enabled} only takes effect on Java 21+, so on older runtimes the flag is reported
+ * as ignored instead of silently doing nothing. With virtual threads request concurrency is no longer capped by the
+ * Tomcat pool, the Hikari pool becomes the effective limit and {@code connection-timeout} decides how long excess
+ * requests wait for a connection.
+ */
+@Slf4j
+@Component
+public class VirtualThreadsDiagnostics {
+
+    private static final int VIRTUAL_THREADS_MIN_JAVA = 21;
+
+    private final boolean virtualThreadsEnabled;
+    private final DataSource dataSource;
+
+    public VirtualThreadsDiagnostics(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                                     DataSource dataSource) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        if (!virtualThreadsEnabled) {
+            log.info("Handling requests on platform threads");
+            return;
+        }
+
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < VIRTUAL_THREADS_MIN_JAVA) {
+            log.warn("spring.threads.virtual.enabled is set, but virtual threads need Java {}+ and this JVM is {}; "
+                + "handling requests on platform threads", VIRTUAL_THREADS_MIN_JAVA, javaVersion);
+            return;
+        }
+
+        if (dataSource instanceof HikariDataSource hikari) {
+            log.info("Handling requests on virtual threads, database concurrency is bounded by a pool of {} connections "
+                + "with a {} ms acquire timeout", hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+        } else {
+            log.info("Handling requests on virtual threads");
+        }
+    }
+}
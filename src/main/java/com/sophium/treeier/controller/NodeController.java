@@ -1,9 +1,13 @@
 package com.sophium.treeier.controller;
 
+import com.sophium.treeier.dto.NodeChildrenPageDto;
 import com.sophium.treeier.dto.NodeDto;
+import com.sophium.treeier.dto.NodePathItemDto;
+import com.sophium.treeier.dto.NodeSearchHitDto;
 import com.sophium.treeier.exception.NotFoundException;
 
 import com.sophium.treeier.service.NodeService;
+import com.sophium.treeier.service.search.NodeSearchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,10 +15,12 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 import static com.sophium.treeier.util.Constants.NODE_NOT_FOUND;
 
@@ -24,6 +30,7 @@ import static com.sophium.treeier.util.Constants.NODE_NOT_FOUND;
 public class NodeController {
 
     private final NodeService nodeService;
+    private final NodeSearchService nodeSearchService;
 
     @GetMapping("/node/{id}")
     public NodeDto getNode(@PathVariable("id") Long nodeId) {
@@ -34,6 +41,30 @@ public class NodeController {
         return node;
     }
 
+    @GetMapping("/node/search")
+    public List<NodeSearchHitDto> searchNodes(@RequestParam String query,
+                                              @RequestParam(defaultValue = "20") int limit,
+                                              @RequestParam(defaultValue = "false") boolean editableOnly) {
+        return nodeSearchService.search(query, limit, editableOnly);
+    }
+
+    @GetMapping("/node/{id}/path")
+    public List<NodePathItemDto> getPath(@PathVariable("id") Long nodeId) {
+        return nodeService.findPath(nodeId);
+    }
+
+    @GetMapping("/node/paths")
+    public Map<Long, List<NodePathItemDto>> getPaths(@RequestParam List<Long> ids) {
+        return nodeService.findPaths(ids);
+    }
+
+    @GetMapping("/node/{id}/children")
+    public NodeChildrenPageDto getChildren(@PathVariable("id") Long nodeId,
+                                           @RequestParam(required = false) Long afterId,
+                                           @RequestParam(defaultValue = "50") int size) {
+        return nodeService.findChildren(nodeId, afterId, size);
+    }
+
     @GetMapping("/nodes/{rootNodeId}")
     public List<NodeDto> findChildrenFromRoot(@PathVariable("rootNodeId") Long rootNodeId) {
         List<NodeDto> node = nodeService.findAllNodesFromRoot(rootNodeId);
@@ -1,12 +1,17 @@
 package com.sophium.treeier.controller;
 
+import com.sophium.treeier.dto.ForkLineageDto;
 import com.sophium.treeier.dto.NodeDto;
 import com.sophium.treeier.dto.ShareTreeDto;
 import com.sophium.treeier.dto.TreeDto;
+import com.sophium.treeier.dto.TreeOperationsResultDto;
+import com.sophium.treeier.dto.TreePageDto;
 import com.sophium.treeier.dto.TreeStatisticsDto;
 import com.sophium.treeier.dto.UpdateTreeDto;
+import com.sophium.treeier.request.CreateSubtreeDto;
 import com.sophium.treeier.request.CreateTreeDto;
 import com.sophium.treeier.request.CreateTreeNodeDto;
+import com.sophium.treeier.request.TreeOperationsDto;
 import com.sophium.treeier.request.UpdateTreeNodeDto;
 import com.sophium.treeier.service.NodeService;
 import com.sophium.treeier.service.TreeService;
@@ -18,6 +23,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -30,8 +36,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/trees")
@@ -39,6 +49,8 @@ import java.util.Map;
 @Validated
 public class TreeController {
 
+    private static final Set<String> PAGING_PARAMETERS = Set.of("page", "size", "sort");
+
     private final TreeService treeService;
     private final NodeService nodeService;
 
@@ -59,15 +71,30 @@ public class TreeController {
         return ResponseEntity.ok(tree);
     }
 
+    @GetMapping(value = "/{id}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamTree(@PathVariable Long id) {
+        StreamingResponseBody body = treeService.streamTreeNodes(id);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+
     @GetMapping
     public ResponseEntity<Page<TreeDto>> getTrees(
         @PageableDefault(size = 20, sort = "updatedAt", direction = Sort.Direction.DESC) Pageable pageable,
         @RequestParam(required = false) Map<String, String> labels) {
 
-        Page<TreeDto> trees = treeService.getTrees(pageable, labels);
+        Page<TreeDto> trees = treeService.getTrees(pageable, withoutPagingParameters(labels));
         return ResponseEntity.ok(trees);
     }
 
+    @GetMapping("/recent")
+    public ResponseEntity<TreePageDto> getRecentTrees(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(treeService.getRecentTrees(cursor, size));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<TreeDto> updateTree(@PathVariable Long id, @Valid @RequestBody UpdateTreeDto updateTreeDto) {
         TreeDto updated = treeService.updateTree(id, updateTreeDto);
@@ -114,6 +141,11 @@ public class TreeController {
         return ResponseEntity.ok(updated);
     }
 
+    @GetMapping("/{id}/lineage")
+    public ResponseEntity<ForkLineageDto> getForkLineage(@PathVariable Long id) {
+        return ResponseEntity.ok(treeService.getForkLineage(id));
+    }
+
     @GetMapping("/{id}/statistics")
     public ResponseEntity<TreeStatisticsDto> getTreeStatistics(
         @PathVariable Long id) {
@@ -130,6 +162,23 @@ public class TreeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdNode);
     }
 
+    @PostMapping("/{treeId}/subtree")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ResponseEntity<List<NodeDto>> addSubtree(
+        @PathVariable Long treeId,
+        @Valid @RequestBody CreateSubtreeDto subtreeDto) {
+        List<NodeDto> createdNodes = treeService.addSubtreeToTree(treeId, subtreeDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(createdNodes);
+    }
+
+    @PostMapping("/{treeId}/operations")
+    public ResponseEntity<TreeOperationsResultDto> applyOperations(
+        @PathVariable Long treeId,
+        @Valid @RequestBody TreeOperationsDto operationsDto) {
+        TreeOperationsResultDto result = nodeService.applyOperations(treeId, operationsDto.getOperations());
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{treeId}/node/{nodeId}")
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<NodeDto> updateNode(
@@ -148,4 +197,14 @@ public class TreeController {
         treeService.moveNodeWithinTree(id, nodeId, newParentId);
         return ResponseEntity.ok().build();
     }
+
+    // The labels map receives every query parameter, including the ones that were bound to the Pageable
+    private static Map<String, String> withoutPagingParameters(Map<String, String> parameters) {
+        if (parameters == null) {
+            return null;
+        }
+        Map<String, String> labels = new HashMap<>(parameters);
+        labels.keySet().removeAll(PAGING_PARAMETERS);
+        return labels;
+    }
 }
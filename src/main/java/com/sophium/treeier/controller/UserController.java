@@ -25,8 +25,10 @@ public class UserController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<UserDto>> searchUsers(@RequestParam String query) {
-        List<UserDto> users = userService.searchUsers(query);
+    public ResponseEntity<List<UserDto>> searchUsers(@RequestParam(defaultValue = "") String query,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "20") int size) {
+        List<UserDto> users = userService.searchUsers(query, page, size);
         return ResponseEntity.ok(users);
     }
 
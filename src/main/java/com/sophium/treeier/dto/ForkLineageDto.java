@@ -0,0 +1,22 @@
+package com.sophium.treeier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForkLineageDto {
+    private Long treeId;
+    /**
+     * Trees this tree was forked from, nearest first.
+     */
+    private List<ForkLineageTreeDto> ancestors;
+    /**
+     * Forks of this tree and their forks, by generation.
+     */
+    private List<ForkLineageTreeDto> descendants;
+}
@@ -0,0 +1,20 @@
+package com.sophium.treeier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForkLineageTreeDto {
+    private Long treeId;
+    private Long parentTreeId;
+    private String title;
+    /**
+     * Number of fork generations between this tree and the tree the lineage was requested for.
+     */
+    private Integer distance;
+    private Integer forkCount;
+    private boolean deleted;
+}
@@ -0,0 +1,13 @@
+package com.sophium.treeier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodePathItemDto {
+    private Long id;
+    private String title;
+}
@@ -0,0 +1,24 @@
+package com.sophium.treeier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeSearchHitDto {
+    private Long nodeId;
+    private Long treeId;
+    private String title;
+    /**
+     * Ancestors of the node, starting at the tree root.
+     */
+    private List<NodePathItemDto> path;
+    private boolean canEdit;
+    private int score;
+}
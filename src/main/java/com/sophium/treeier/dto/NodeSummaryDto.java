@@ -0,0 +1,21 @@
+package com.sophium.treeier.dto;
+
+import com.sophium.treeier.entity.NodeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeSummaryDto {
+    private Long id;
+    private Long parentId;
+    private Long rootId;
+    private String title;
+    private NodeType nodeType;
+    private Boolean flagValue;
+    private String linkValue;
+    private Integer depth;
+    private Boolean hasChildren;
+}
@@ -21,6 +21,7 @@ public class TreeDto {
     private Set<Long> editorIds;
     private Long parentTreeId;
     private List<Long> forkIds;
+    private Integer forkCount;
     private Integer nodeCount;
     private Integer maxDepth;
     private LocalDateTime createdAt;
@@ -0,0 +1,13 @@
+package com.sophium.treeier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TreeOperationsResultDto {
+    private List<Long> movedNodeIds;
+    private List<Long> deletedNodeIds;
+}
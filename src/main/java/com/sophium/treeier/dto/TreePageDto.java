@@ -0,0 +1,13 @@
+package com.sophium.treeier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TreePageDto {
+    private List<TreeDto> items;
+    private String nextCursor;
+}
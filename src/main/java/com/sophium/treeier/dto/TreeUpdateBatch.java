@@ -0,0 +1,19 @@
+package com.sophium.treeier.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TreeUpdateBatch {
+
+    private Long treeId;
+    private List<TreeUpdateNotification> events;
+
+}
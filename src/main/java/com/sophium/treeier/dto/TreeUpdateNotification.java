@@ -9,7 +9,7 @@ import java.time.Instant;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class TreeUpdateNotification {
@@ -20,6 +20,7 @@ public class TreeUpdateNotification {
     private OperationType operationType;
     private String authorEmail;
     private String authorName;
+    private List<Long> createdNodeIds;
     private List<Long> deletedNodeIds;
     private Long oldParentId;
     private Long newParentId;
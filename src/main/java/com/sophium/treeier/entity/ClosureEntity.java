@@ -4,6 +4,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -19,7 +20,7 @@ import java.io.Serializable;
 @Builder
 @Data
 @Entity
-@Table
+@Table(indexes = @Index(name = "idx_closure_descendant_depth", columnList = "descendant, depth"))
 @IdClass(ClosureEntity.ClosureId.class)
 public class ClosureEntity {
 
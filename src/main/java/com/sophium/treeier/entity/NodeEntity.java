@@ -6,6 +6,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -14,12 +15,14 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
-import org.hibernate.annotations.Formula;
 
 import java.util.List;
 
 @Entity
-@Table(name = "nodes")
+@Table(name = "nodes", indexes = {
+    @Index(name = "idx_nodes_root_depth", columnList = "root, depth"),
+    @Index(name = "idx_nodes_parent_id", columnList = "parent, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,7 +58,7 @@ public class NodeEntity {
     @OneToMany(mappedBy = "node", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comment> comments;
 
-    @Formula("(SELECT c.depth FROM closure_entity c WHERE c.ancestor = root AND c.descendant = id)")
+    @Column(name = "depth")
     private Integer depth;
 
 }
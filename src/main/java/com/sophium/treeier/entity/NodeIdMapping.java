@@ -0,0 +1,46 @@
+package com.sophium.treeier.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Work table holding old-to-new node id pairs while a subtree is copied with set-based statements.
+ * Rows live only inside the copying transaction.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+@Entity
+@Table(name = "node_id_mapping")
+@IdClass(NodeIdMapping.NodeIdMappingId.class)
+public class NodeIdMapping {
+
+    @Id
+    @Column(name = "mapping_key")
+    private Long mappingKey;
+
+    @Id
+    @Column(name = "old_id")
+    private Long oldId;
+
+    @Column(name = "new_id", nullable = false)
+    private Long newId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NodeIdMappingId implements Serializable {
+        private Long mappingKey;
+        private Long oldId;
+    }
+}
@@ -0,0 +1,41 @@
+package com.sophium.treeier.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An entry of the change feed every instance's node search index follows: a node to reload, or, without a node,
+ * a deleted tree whose nodes have to be dropped.
+ */
+@Entity
+@Table(name = "node_search_change", indexes = @Index(name = "idx_node_search_change_created", columnList = "created_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeSearchChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id")
+    private Long nodeId;
+
+    @Column(name = "tree_id", nullable = false)
+    private Long treeId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,46 @@
+package com.sophium.treeier.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "tree_outbox", indexes = @Index(name = "idx_tree_outbox_failed_id", columnList = "failed_at, id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tree_id", nullable = false)
+    private Long treeId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Set when dispatching the event failed; such events are kept for inspection and no longer dispatched.
+     */
+    @Column(name = "failed_at")
+    private Instant failedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,42 @@
+package com.sophium.treeier.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A subtree detached from its tree that still has to be deleted by the background purge.
+ */
+@Entity
+@Table(name = "subtree_purge", indexes = {
+    @Index(name = "idx_subtree_purge_node", columnList = "node_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubtreePurge {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false)
+    private Long nodeId;
+
+    @Column(name = "tree_id", nullable = false)
+    private Long treeId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -21,6 +21,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -40,7 +41,8 @@ import java.util.Set;
 @Table(name = "trees", indexes = {
     @Index(name = "idx_tree_owner", columnList = "owner_id"),
     @Index(name = "idx_tree_deleted", columnList = "deleted_at"),
-    @Index(name = "idx_tree_parent", columnList = "parent_tree_id")
+    @Index(name = "idx_tree_parent", columnList = "parent_tree_id"),
+    @Index(name = "idx_tree_updated_id", columnList = "updated_at, id")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Data
@@ -68,9 +70,11 @@ public class Tree {
     private User owner;
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @CollectionTable(
         name = "tree_labels",
-        joinColumns = @JoinColumn(name = "tree_id")
+        joinColumns = @JoinColumn(name = "tree_id"),
+        indexes = @Index(name = "idx_tree_labels_key_value_tree", columnList = "label_key, label_value, tree_id")
     )
     @MapKeyColumn(name = "label_key", length = 15)
     @Column(name = "label_value", length = 15)
@@ -120,21 +124,19 @@ public class Tree {
     @Column(name = "updated_by")
     private String updatedBy;
 
-    @Column(name = "node_count")
+    // Maintained by TreeStatisticsService with in-place increments; entity saves must not write stale values back.
+    @Column(name = "node_count", updatable = false)
     @Builder.Default
     private Integer nodeCount = 0;
 
-    @Column(name = "max_depth")
+    @Column(name = "max_depth", updatable = false)
     @Builder.Default
     private Integer maxDepth = 0;
 
-    public boolean isOwner(User user) {
-        return owner != null && owner.equals(user);
-    }
-
-    public boolean canEdit(User user) {
-        return isOwner(user) || editors.contains(user);
-    }
+    // Number of live forks, maintained like the node statistics above
+    @Column(name = "fork_count", updatable = false)
+    @Builder.Default
+    private Integer forkCount = 0;
 
     public void softDelete(String deletedByUser) {
         this.deletedAt = LocalDateTime.now();
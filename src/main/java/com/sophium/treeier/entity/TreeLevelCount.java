@@ -0,0 +1,42 @@
+package com.sophium.treeier.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+@Entity
+@Table(name = "tree_level_counts")
+@IdClass(TreeLevelCount.TreeLevelCountId.class)
+public class TreeLevelCount {
+
+    @Id
+    @Column(name = "tree_id")
+    private Long treeId;
+
+    @Id
+    @Column(name = "depth")
+    private Integer depth;
+
+    @Column(name = "node_count", nullable = false)
+    private Integer nodeCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TreeLevelCountId implements Serializable {
+        private Long treeId;
+        private Integer depth;
+    }
+}
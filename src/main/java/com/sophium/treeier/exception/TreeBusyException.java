@@ -0,0 +1,7 @@
+package com.sophium.treeier.exception;
+
+public class TreeBusyException extends RuntimeException {
+    public TreeBusyException(String message) {
+        super(message);
+    }
+}
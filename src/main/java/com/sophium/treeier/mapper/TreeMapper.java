@@ -31,6 +31,21 @@ public interface TreeMapper {
     @Mapping(target = "forkIds", expression = "java(mapForkIds(tree.getForks()))")
     TreeDto toDtoWithoutNodes(Tree tree);
 
+    /**
+     * Maps only the tree's own columns; owner name, editors and forks are filled in by
+     * {@link com.sophium.treeier.service.TreeListingAssembler} for a whole page at once.
+     */
+    @Named("toListingDto")
+    @Mapping(target = "ownerId", source = "owner.id")
+    @Mapping(target = "ownerName", ignore = true)
+    @Mapping(target = "editorIds", ignore = true)
+    @Mapping(target = "parentTreeId", source = "parentTree.id")
+    @Mapping(target = "forkIds", ignore = true)
+    @Mapping(target = "nodes", ignore = true)
+    @Mapping(target = "history", ignore = true)
+    @Mapping(target = "isParentTreeDeleted", ignore = true)
+    TreeDto toListingDto(Tree tree);
+
     default Set<Long> mapEditorIds(Set<User> editors) {
         return editors.stream()
             .map(User::getId)
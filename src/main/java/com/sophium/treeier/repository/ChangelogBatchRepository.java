@@ -0,0 +1,64 @@
+package com.sophium.treeier.repository;
+
+import com.sophium.treeier.entity.ChangelogEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+@Repository
+@RequiredArgsConstructor
+public class ChangelogBatchRepository {
+
+    private static final String INSERT_PREFIX = "INSERT INTO changelog " +
+        "(tree_id, node_id, node_title, operation, author_email, author_name, changed_at) VALUES ";
+
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes all entries with a single multi-row INSERT.
+     */
+    public void insertAll(List<ChangelogEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + entries.size() * (ROW_PLACEHOLDERS.length() + 2))
+            .append(INSERT_PREFIX);
+        List<Object> args = new ArrayList<>(entries.size() * 7);
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+
+            ChangelogEntry entry = entries.get(i);
+            args.add(entry.getTreeId());
+            args.add(entry.getNodeId());
+            args.add(entry.getNodeTitle());
+            args.add(entry.getOperation().name());
+            args.add(entry.getAuthorEmail());
+            args.add(entry.getAuthorName());
+            args.add(entry.getChangedAt() != null ? Timestamp.from(entry.getChangedAt()) : null);
+        }
+
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        jdbcTemplate.update(sql.toString(), ps -> {
+            for (int i = 0; i < args.size(); i++) {
+                Object value = args.get(i);
+                if (value instanceof Timestamp timestamp) {
+                    ps.setTimestamp(i + 1, timestamp, utc);
+                } else {
+                    ps.setObject(i + 1, value);
+                }
+            }
+        });
+    }
+}
@@ -1,14 +1,23 @@
 package com.sophium.treeier.repository;
 
+import com.sophium.treeier.dto.NodeRowDto;
 import com.sophium.treeier.entity.ClosureEntity;
 import com.sophium.treeier.entity.NodeEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ClosureRepository extends JpaRepository<ClosureEntity, ClosureEntity.ClosureId> {
@@ -40,22 +49,94 @@ public interface ClosureRepository extends JpaRepository<ClosureEntity, ClosureE
         nativeQuery = true)
     void addNodeToParent(@Param("childId") Long childId, @Param("parentId") Long parentId);
 
-    @Modifying
+    /**
+     * Removes every closure row linking the subtree of {@code nodeId} to the ancestors above it. For a subtree node
+     * those are exactly the rows longer than its distance from {@code nodeId}.
+     */
+    @Modifying(flushAutomatically = true)
     @Query(value = "DELETE ce FROM closure_entity ce " +
-        "INNER JOIN closure_entity p ON p.ancestor = ce.ancestor " +
-        "INNER JOIN closure_entity c ON c.descendant = ce.descendant " +
-        "WHERE p.descendant = :parentId AND c.ancestor = :childId",
+        "INNER JOIN closure_entity sub ON sub.descendant = ce.descendant " +
+        "WHERE sub.ancestor = :nodeId AND ce.depth > sub.depth",
+        nativeQuery = true)
+    void detachSubtree(@Param("nodeId") Long nodeId);
+
+    /**
+     * Rewrites root and the moved node's parent on the closure rows that remain inside a detached subtree.
+     */
+    @Modifying
+    @Query(value = "UPDATE closure_entity c " +
+        "INNER JOIN closure_entity sub ON sub.descendant = c.descendant " +
+        "SET c.root = :rootId, " +
+        "c.parent = CASE WHEN c.descendant = :nodeId THEN :newParentId ELSE c.parent END " +
+        "WHERE sub.ancestor = :nodeId",
+        nativeQuery = true)
+    void reparentSubtreeRows(@Param("nodeId") Long nodeId,
+                             @Param("newParentId") Long newParentId,
+                             @Param("rootId") Long rootId);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE nodes n " +
+        "INNER JOIN closure_entity c ON c.descendant = n.id " +
+        "SET n.depth = n.depth + :delta, n.root = :rootId, " +
+        "n.parent = CASE WHEN n.id = :nodeId THEN :newParentId ELSE n.parent END " +
+        "WHERE c.ancestor = :nodeId",
+        nativeQuery = true)
+    void moveSubtreeNodes(@Param("nodeId") Long nodeId,
+                          @Param("newParentId") Long newParentId,
+                          @Param("rootId") Long rootId,
+                          @Param("delta") int delta);
+
+    /**
+     * Turns a subtree whose closure rows were already detached into a standalone fragment rooted at
+     * {@code nodeId}, so that it no longer shows up in queries on its former tree.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE nodes n " +
+        "INNER JOIN closure_entity c ON c.descendant = n.id " +
+        "SET n.root = :nodeId, " +
+        "n.parent = CASE WHEN n.id = :nodeId THEN NULL ELSE n.parent END " +
+        "WHERE c.ancestor = :nodeId",
         nativeQuery = true)
-    void removeNodeFromParent(@Param("childId") Long childId, @Param("parentId") Long parentId);
+    void detachSubtreeNodes(@Param("nodeId") Long nodeId);
+
+    @Modifying
+    @Query(value = "UPDATE nodes n " +
+        "INNER JOIN closure_entity c ON c.ancestor = n.root AND c.descendant = n.id " +
+        "SET n.depth = c.depth " +
+        "WHERE n.depth IS NULL",
+        nativeQuery = true)
+    int backfillNodeDepths();
 
     @Query("SELECT c.descendant FROM ClosureEntity c " +
         "WHERE c.ancestor = :nodeId AND c.descendant != :nodeId")
     List<Long> findDescendantIds(@Param("nodeId") Long nodeId);
 
+    /**
+     * Returns nodes of the subtree deepest first, so a prefix of the result never contains an ancestor of a node
+     * left out of it.
+     */
+    @Query("SELECT c.descendant FROM ClosureEntity c WHERE c.ancestor = :nodeId ORDER BY c.depth DESC")
+    List<Long> findDeepestDescendantIds(@Param("nodeId") Long nodeId, Limit limit);
+
     @Modifying
     @Query("DELETE FROM ClosureEntity c WHERE c.descendant IN :nodeIds")
     void deleteByDescendantIn(@Param("nodeIds") List<Long> nodeIds);
 
+    /**
+     * Returns node id, ancestor id and ancestor title for every node and each of its ancestors, the node itself
+     * included, ordered from the root down. Nodes detached for a background purge have no path.
+     */
+    @Query("SELECT c.descendant, n.id, n.title FROM ClosureEntity c " +
+        "JOIN NodeEntity n ON n.id = c.ancestor " +
+        "JOIN NodeEntity d ON d.id = c.descendant " +
+        "WHERE c.descendant IN :nodeIds " +
+        "AND NOT EXISTS (SELECT 1 FROM SubtreePurge p WHERE p.nodeId = d.rootId) " +
+        "ORDER BY c.descendant, c.depth DESC")
+    List<Object[]> findPaths(@Param("nodeIds") Collection<Long> nodeIds);
+
+    @Query("SELECT c.ancestor, c.depth FROM ClosureEntity c WHERE c.descendant = :nodeId")
+    List<Object[]> findAncestorDepths(@Param("nodeId") Long nodeId);
+
     @Query(value = "SELECT c.depth as level, COUNT(DISTINCT c.descendant) as count " +
         "FROM closure_entity c " +
         "WHERE c.ancestor = :rootId " +
@@ -71,6 +152,28 @@ public interface ClosureRepository extends JpaRepository<ClosureEntity, ClosureE
         "ORDER BY c.depth, n.id")
     List<NodeEntity> findAllTreeNodes(@Param("rootId") Long rootId);
 
+    @Query("SELECT n " +
+        "FROM NodeEntity n " +
+        "JOIN ClosureEntity c ON c.descendant = n.id " +
+        "LEFT JOIN FETCH n.comments cm " +
+        "LEFT JOIN FETCH cm.author " +
+        "WHERE c.ancestor = :rootId " +
+        "ORDER BY c.depth, n.id")
+    List<NodeEntity> findSubtreeNodes(@Param("rootId") Long rootId);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one instead of buffering the result set
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.sophium.treeier.dto.NodeRowDto(" +
+        "n.id, n.parentId, n.rootId, n.title, n.description, n.nodeType, n.flagValue, n.linkValue, c.depth) " +
+        "FROM NodeEntity n " +
+        "JOIN ClosureEntity c ON c.descendant = n.id " +
+        "WHERE c.ancestor = :rootId " +
+        "ORDER BY c.depth, n.id")
+    Stream<NodeRowDto> streamSubtreeNodes(@Param("rootId") Long rootId);
+
     @Query("SELECT MAX(c.depth) FROM ClosureEntity c WHERE c.ancestor = :rootId")
     Integer findMaxDepthInTree(@Param("rootId") Long rootId);
 }
@@ -1,9 +1,49 @@
 package com.sophium.treeier.repository;
 
+import com.sophium.treeier.dto.NodeSummaryDto;
 import com.sophium.treeier.entity.NodeEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface NodeJpaRepository extends JpaRepository<NodeEntity, Long> {
+
+    @Query("SELECT new com.sophium.treeier.dto.NodeSummaryDto(" +
+        "n.id, n.parentId, n.rootId, n.title, n.nodeType, n.flagValue, n.linkValue, n.depth, " +
+        "CASE WHEN EXISTS (SELECT 1 FROM NodeEntity c WHERE c.parentId = n.id) THEN true ELSE false END) " +
+        "FROM NodeEntity n " +
+        "WHERE n.parentId = :parentId AND n.id > :afterId " +
+        "ORDER BY n.id")
+    List<NodeSummaryDto> findChildSummaries(@Param("parentId") Long parentId,
+                                            @Param("afterId") Long afterId,
+                                            Limit limit);
+
+    @Query("SELECT n.id, n.parentId, n.depth, n.title FROM NodeEntity n WHERE n.rootId = :rootId")
+    List<Object[]> findTreeOutline(@Param("rootId") Long rootId);
+
+    @Query("SELECT n.id, n.title, n.description FROM NodeEntity n WHERE n.rootId = :rootId")
+    List<Object[]> findSearchDocuments(@Param("rootId") Long rootId);
+
+    /**
+     * Returns id, tree id, title and description of those nodes that still belong to a live tree.
+     */
+    @Query("SELECT n.id, t.id, n.title, n.description FROM NodeEntity n " +
+        "JOIN Tree t ON t.rootNodeId = n.rootId " +
+        "WHERE n.id IN :nodeIds")
+    List<Object[]> findSearchDocumentsByIdIn(@Param("nodeIds") Collection<Long> nodeIds);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.node.id IN :nodeIds")
+    int deleteCommentsByNodeIdIn(@Param("nodeIds") List<Long> nodeIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM NodeEntity n WHERE n.id IN :nodeIds")
+    int deleteAllByIdIn(@Param("nodeIds") List<Long> nodeIds);
 }
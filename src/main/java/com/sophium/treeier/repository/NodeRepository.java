@@ -1,19 +1,29 @@
 package com.sophium.treeier.repository;
 
 import com.sophium.treeier.dto.NodeDto;
+import com.sophium.treeier.dto.NodePathItemDto;
+import com.sophium.treeier.dto.NodeRowDto;
+import com.sophium.treeier.dto.NodeSummaryDto;
 import com.sophium.treeier.entity.ClosureEntity;
 import com.sophium.treeier.entity.NodeEntity;
 import com.sophium.treeier.exception.NotFoundException;
 import com.sophium.treeier.mapper.NodeMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 import static com.sophium.treeier.util.Constants.NODE_NOT_FOUND;
 
@@ -21,11 +31,44 @@ import static com.sophium.treeier.util.Constants.NODE_NOT_FOUND;
 @RequiredArgsConstructor
 public class NodeRepository {
 
-    private static final int MAX_DEPTH = 5;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_NODE = "INSERT INTO nodes " +
+        "(id, parent, root, title, description, node_type, flag_value, link_value, depth) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CLOSURE = "INSERT INTO closure_entity " +
+        "(ancestor, descendant, depth, parent, root) " +
+        "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ID_MAPPING = "INSERT INTO node_id_mapping " +
+        "(mapping_key, old_id, new_id) " +
+        "VALUES (?, ?, ?)";
+
+    private static final String COPY_NODES = "INSERT INTO nodes " +
+        "(id, parent, root, title, description, node_type, flag_value, link_value, depth) " +
+        "SELECT m.new_id, mp.new_id, ?, n.title, n.description, n.node_type, n.flag_value, n.link_value, n.depth " +
+        "FROM node_id_mapping m " +
+        "INNER JOIN nodes n ON n.id = m.old_id " +
+        "LEFT JOIN node_id_mapping mp ON mp.mapping_key = m.mapping_key AND mp.old_id = n.parent " +
+        "WHERE m.mapping_key = ?";
+
+    private static final String COPY_CLOSURE = "INSERT INTO closure_entity " +
+        "(ancestor, descendant, depth, parent, root) " +
+        "SELECT ma.new_id, md.new_id, c.depth, mp.new_id, ? " +
+        "FROM node_id_mapping md " +
+        "INNER JOIN closure_entity c ON c.descendant = md.old_id " +
+        "INNER JOIN node_id_mapping ma ON ma.mapping_key = md.mapping_key AND ma.old_id = c.ancestor " +
+        "LEFT JOIN node_id_mapping mp ON mp.mapping_key = md.mapping_key AND mp.old_id = c.parent " +
+        "WHERE md.mapping_key = ?";
+
+    private static final String DELETE_ID_MAPPING = "DELETE FROM node_id_mapping WHERE mapping_key = ?";
 
     private final NodeJpaRepository nodeJpaRepository;
     private final ClosureRepository closureJpaRepository;
     private final NodeMapper nodeMapper;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
 
     public NodeDto findById(long id) {
         NodeEntity node = nodeJpaRepository.findById(id).orElse(null);
@@ -35,14 +78,33 @@ public class NodeRepository {
         return nodeMapper.toDto(node);
     }
 
+    public boolean existsById(Long id) {
+        return nodeJpaRepository.existsById(id);
+    }
+
+    /**
+     * Returns up to {@code limit} children of the given node with ids greater than {@code afterId},
+     * ordered by id, so the (parent, id) index serves both the filter and the order.
+     */
+    public List<NodeSummaryDto> findChildSummaries(Long parentId, Long afterId, int limit) {
+        return nodeJpaRepository.findChildSummaries(parentId, afterId, Limit.of(limit));
+    }
+
+    /**
+     * @return {@code (id, parentId, depth, title)} of every node of the tree
+     */
+    public List<Object[]> findTreeOutline(Long rootId) {
+        return nodeJpaRepository.findTreeOutline(rootId);
+    }
+
     public NodeEntity findNodeEntityById(Long id) {
         return nodeJpaRepository.findById(id).orElse(null);
     }
 
     public NodeDto createNode(NodeDto node) {
         NodeEntity entity = nodeMapper.treeNodeDtoToEntity(node);
-        NodeEntity saved = nodeJpaRepository.save(entity);
-        return findById(saved.getId());
+        entityManager.persist(entity);
+        return nodeMapper.toDto(entity);
     }
 
     public NodeEntity updateNode(NodeDto node) {
@@ -52,7 +114,9 @@ public class NodeRepository {
             entity.setRootId(node.getRootId());
             entity.setTitle(node.getTitle());
             entity.setDescription(node.getDescription());
-            entity.setDescription(node.getDescription());
+            if (Objects.nonNull(node.getDepth())) {
+                entity.setDepth(node.getDepth());
+            }
             return nodeJpaRepository.save(entity);
         }
         throw new NotFoundException(NODE_NOT_FOUND);
@@ -66,7 +130,77 @@ public class NodeRepository {
         selfReference.setParent(node.getParentId());
         selfReference.setRoot(node.getRootId());
 
-        closureJpaRepository.save(selfReference);
+        entityManager.persist(selfReference);
+    }
+
+    public void batchInsertNodes(List<NodeDto> nodes) {
+        jdbcTemplate.batchUpdate(INSERT_NODE, nodes, BATCH_SIZE, (ps, node) -> {
+            ps.setLong(1, node.getId());
+            ps.setObject(2, node.getParentId(), Types.BIGINT);
+            ps.setLong(3, node.getRootId());
+            ps.setString(4, node.getTitle());
+            ps.setString(5, node.getDescription());
+            ps.setString(6, node.getNodeType() != null ? node.getNodeType().name() : null);
+            ps.setObject(7, node.getFlagValue(), Types.BOOLEAN);
+            ps.setString(8, node.getLinkValue());
+            ps.setInt(9, node.getDepth());
+        });
+    }
+
+    public void batchInsertClosureEntries(List<ClosureEntity> entries) {
+        jdbcTemplate.batchUpdate(INSERT_CLOSURE, entries, BATCH_SIZE, (ps, entry) -> {
+            ps.setLong(1, entry.getAncestor());
+            ps.setLong(2, entry.getDescendant());
+            ps.setInt(3, entry.getDepth());
+            ps.setObject(4, entry.getParent(), Types.BIGINT);
+            ps.setLong(5, entry.getRoot());
+        });
+    }
+
+    /**
+     * Copies the subtree under {@code rootId} using the precomputed old-to-new id mapping, which must contain
+     * every node of the subtree. The copy of {@code rootId} becomes the root of the new structure.
+     */
+    public void copySubtree(Long rootId, Map<Long, Long> idMapping) {
+        Long newRootId = idMapping.get(rootId);
+
+        jdbcTemplate.batchUpdate(INSERT_ID_MAPPING, idMapping.entrySet(), BATCH_SIZE, (ps, mapping) -> {
+            ps.setLong(1, newRootId);
+            ps.setLong(2, mapping.getKey());
+            ps.setLong(3, mapping.getValue());
+        });
+        jdbcTemplate.update(COPY_NODES, newRootId, newRootId);
+        jdbcTemplate.update(COPY_CLOSURE, newRootId, newRootId);
+        jdbcTemplate.update(DELETE_ID_MAPPING, newRootId);
+    }
+
+    public List<Long> findSubtreeNodeIds(Long rootId) {
+        List<Long> nodeIds = closureJpaRepository.findDescendantIds(rootId);
+        nodeIds.add(rootId);
+        return nodeIds;
+    }
+
+    /**
+     * Returns every ancestor of the node, the node itself included, mapped to its distance from the node.
+     */
+    public Map<Long, Integer> findAncestorDepths(Long nodeId) {
+        Map<Long, Integer> ancestors = new LinkedHashMap<>();
+        for (Object[] result : closureJpaRepository.findAncestorDepths(nodeId)) {
+            ancestors.put(((Number) result[0]).longValue(), ((Number) result[1]).intValue());
+        }
+        return ancestors;
+    }
+
+    /**
+     * Returns the root-to-node path of every existing node, the node itself last, read with one closure query.
+     */
+    public Map<Long, List<NodePathItemDto>> findPaths(Collection<? extends Long> nodeIds) {
+        Map<Long, List<NodePathItemDto>> paths = new HashMap<>();
+        for (Object[] row : closureJpaRepository.findPaths(List.copyOf(nodeIds))) {
+            paths.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>())
+                .add(new NodePathItemDto(((Number) row[1]).longValue(), (String) row[2]));
+        }
+        return paths;
     }
 
     public void addNodeToParent(Long nodeId, Long parentId) {
@@ -75,10 +209,16 @@ public class NodeRepository {
         }
     }
 
-    public void removeNodeFromParent(Long nodeId, Long parentId) {
-        if (Objects.nonNull(parentId)) {
-            closureJpaRepository.removeNodeFromParent(nodeId, parentId);
-        }
+    /**
+     * Moves the subtree of {@code nodeId} under {@code newParentId} with set-based statements: detaches it from its
+     * old ancestors, rewrites root and parent on the rows inside it, links it to the new ancestors and updates
+     * depth and root of every node in it.
+     */
+    public void moveSubtree(Long nodeId, Long newParentId, Long rootId, int depthDelta) {
+        closureJpaRepository.detachSubtree(nodeId);
+        closureJpaRepository.reparentSubtreeRows(nodeId, newParentId, rootId);
+        closureJpaRepository.addNodeToParent(nodeId, newParentId);
+        closureJpaRepository.moveSubtreeNodes(nodeId, newParentId, rootId, depthDelta);
     }
 
     public boolean isDescendantOf(Long parentId, Long childId) {
@@ -93,9 +233,9 @@ public class NodeRepository {
         return closureJpaRepository.countDescendants(nodeId);
     }
 
-    public boolean canAddChild(Long parentId) {
-        Integer currentDepth = closureJpaRepository.findMaxDepth(parentId);
-        return currentDepth == null || currentDepth < MAX_DEPTH - 1;
+    @Transactional
+    public int backfillNodeDepths() {
+        return closureJpaRepository.backfillNodeDepths();
     }
 
     public Integer findMaxDepthInTree(Long rootId) {
@@ -119,20 +259,64 @@ public class NodeRepository {
         return closureJpaRepository.findAllTreeNodes(rootId);
     }
 
-    @Transactional
-    public List<Long> deleteNodeAndDescendants(Long nodeId) {
-        Optional<NodeEntity> nodeToDelete = nodeJpaRepository.findById(nodeId);
+    public List<NodeEntity> findSubtreeNodes(Long rootId) {
+        return closureJpaRepository.findSubtreeNodes(rootId);
+    }
+
+    public Stream<NodeRowDto> streamSubtreeNodes(Long rootId) {
+        return closureJpaRepository.streamSubtreeNodes(rootId);
+    }
 
-        if (nodeToDelete.isEmpty()) {
+    /**
+     * Deletes the node, its descendants, their closure rows and comments in chunks of at most {@code chunkSize}
+     * nodes, deepest first, using set-based statements only. Returns the ids of the deleted nodes.
+     */
+    @Transactional
+    public List<Long> deleteNodeAndDescendants(Long nodeId, int chunkSize) {
+        if (!nodeJpaRepository.existsById(nodeId)) {
             throw new NotFoundException(String.format(NODE_NOT_FOUND, nodeId));
         }
-        List<Long> nodesToDelete = closureJpaRepository.findDescendantIds(nodeId);
-        nodesToDelete.add(nodeId);
 
-        closureJpaRepository.deleteByDescendantIn(nodesToDelete);
+        List<Long> deletedNodes = new ArrayList<>();
+        List<Long> chunk;
+        do {
+            chunk = deleteSubtreeChunk(nodeId, chunkSize);
+            deletedNodes.addAll(chunk);
+        } while (chunk.size() == chunkSize);
+        return deletedNodes;
+    }
+
+    /**
+     * Deletes the deepest {@code chunkSize} nodes left in the subtree of {@code nodeId}, the node itself going last.
+     * Returns the ids deleted, an empty list once the subtree is gone.
+     */
+    @Transactional
+    public List<Long> deleteSubtreeChunk(Long nodeId, int chunkSize) {
+        List<Long> nodeIds = closureJpaRepository.findDeepestDescendantIds(nodeId, Limit.of(chunkSize));
+        if (nodeIds.isEmpty()) {
+            return nodeIds;
+        }
+        nodeJpaRepository.deleteCommentsByNodeIdIn(nodeIds);
+        closureJpaRepository.deleteByDescendantIn(nodeIds);
+        nodeJpaRepository.deleteAllByIdIn(nodeIds);
+        return nodeIds;
+    }
+
+    /**
+     * Cuts the subtree of {@code nodeId} off its tree without deleting it: its closure rows to the former ancestors
+     * are removed and its nodes re-rooted at {@code nodeId}. Returns the ids of the detached nodes.
+     */
+    @Transactional
+    public List<Long> detachSubtree(Long nodeId) {
+        if (!nodeJpaRepository.existsById(nodeId)) {
+            throw new NotFoundException(String.format(NODE_NOT_FOUND, nodeId));
+        }
 
-        nodeJpaRepository.deleteAllById(nodesToDelete);
-        return nodesToDelete;
+        List<Long> detachedNodes = closureJpaRepository.findDescendantIds(nodeId);
+        detachedNodes.add(nodeId);
+        closureJpaRepository.detachSubtree(nodeId);
+        closureJpaRepository.detachSubtreeNodes(nodeId);
+        return detachedNodes;
     }
 
 }
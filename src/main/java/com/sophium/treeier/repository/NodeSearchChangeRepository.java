@@ -0,0 +1,84 @@
+package com.sophium.treeier.repository;
+
+import com.sophium.treeier.entity.NodeSearchChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+
+@Repository
+@RequiredArgsConstructor
+public class NodeSearchChangeRepository {
+
+    private static final String INSERT_PREFIX = "INSERT INTO node_search_change (node_id, tree_id, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?)";
+    private static final int ROWS_PER_INSERT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends one change per node with multi-row inserts.
+     */
+    public void insertNodeChanges(Long treeId, Collection<Long> nodeIds) {
+        List<Long> ids = List.copyOf(nodeIds);
+        for (int from = 0; from < ids.size(); from += ROWS_PER_INSERT) {
+            insert(treeId, ids.subList(from, Math.min(from + ROWS_PER_INSERT, ids.size())));
+        }
+    }
+
+    public void insertTreeDeleted(Long treeId) {
+        insert(treeId, Collections.singletonList(null));
+    }
+
+    public List<NodeSearchChange> findAfter(long afterId, int limit) {
+        return jdbcTemplate.query(
+            "SELECT id, node_id, tree_id FROM node_search_change WHERE id > ? ORDER BY id LIMIT ?",
+            (rs, rowNum) -> NodeSearchChange.builder()
+                .id(rs.getLong(1))
+                .nodeId(rs.getObject(2, Long.class))
+                .treeId(rs.getLong(3))
+                .build(),
+            afterId, limit);
+    }
+
+    public long findMaxId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM node_search_change", Long.class);
+        return maxId != null ? maxId : 0;
+    }
+
+    public int deleteOlderThan(Instant cutoff, int limit) {
+        return jdbcTemplate.update("DELETE FROM node_search_change WHERE created_at < ? LIMIT ?",
+            ps -> {
+                ps.setTimestamp(1, Timestamp.from(cutoff), Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+                ps.setInt(2, limit);
+            });
+    }
+
+    private void insert(Long treeId, List<Long> nodeIds) {
+        if (nodeIds.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        for (int i = 0; i < nodeIds.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append(ROW_PLACEHOLDERS);
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        jdbcTemplate.update(sql.toString(), ps -> {
+            int index = 1;
+            for (Long nodeId : nodeIds) {
+                ps.setObject(index++, nodeId);
+                ps.setLong(index++, treeId);
+                ps.setTimestamp(index++, now, utc);
+            }
+        });
+    }
+}
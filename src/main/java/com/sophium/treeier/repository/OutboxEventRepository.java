@@ -0,0 +1,22 @@
+package com.sophium.treeier.repository;
+
+import com.sophium.treeier.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest pending events; rows already claimed by another dispatcher are skipped rather than waited on.
+     */
+    @Query(value = "SELECT * FROM tree_outbox WHERE failed_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+        nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+
+    long countByFailedAtIsNull();
+
+    long countByFailedAtIsNotNull();
+}
@@ -0,0 +1,12 @@
+package com.sophium.treeier.repository;
+
+import com.sophium.treeier.entity.SubtreePurge;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface SubtreePurgeRepository extends JpaRepository<SubtreePurge, Long> {
+
+    List<SubtreePurge> findAllByOrderByIdAsc(Limit limit);
+}
@@ -1,25 +1,124 @@
 package com.sophium.treeier.repository;
 
 import com.sophium.treeier.entity.Tree;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface TreeJpaRepository extends JpaRepository<Tree, Long> {
 
-    @Query("SELECT t FROM Tree t WHERE " +
-        "EXISTS (SELECT 1 FROM t.labels l WHERE KEY(l) IN :keys AND VALUE(l) IN :values)")
-    Page<Tree> findByLabels(@Param("keys") Set<String> keys,
-                            @Param("values") Set<String> values,
-                            Pageable pageable);
+    @Query("SELECT t FROM Tree t ORDER BY t.updatedAt DESC, t.id DESC")
+    List<Tree> findMostRecentlyUpdated(Limit limit);
 
-    default Page<Tree> findByLabels(Map<String, String> labels, Pageable pageable) {
-        return findByLabels(labels.keySet(), new HashSet<>(labels.values()), pageable);
-    }
+    @Query("SELECT t FROM Tree t " +
+        "WHERE t.updatedAt < :updatedAt OR (t.updatedAt = :updatedAt AND t.id < :id) " +
+        "ORDER BY t.updatedAt DESC, t.id DESC")
+    List<Tree> findUpdatedBefore(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT t.id, o.name FROM Tree t JOIN t.owner o WHERE t.id IN :treeIds")
+    List<Object[]> findOwnerNames(@Param("treeIds") Collection<Long> treeIds);
+
+    @Query(value = "SELECT tree_id, user_id FROM tree_editors WHERE tree_id IN (:treeIds)", nativeQuery = true)
+    List<Object[]> findEditorIdsByTreeIdIn(@Param("treeIds") Collection<Long> treeIds);
+
+    @Query("SELECT t.parentTree.id, t.id FROM Tree t WHERE t.parentTree.id IN :treeIds ORDER BY t.id")
+    List<Object[]> findForkIdsByParentIdIn(@Param("treeIds") Collection<Long> treeIds);
+
+    @Modifying
+    @Query(value = "UPDATE trees SET fork_count = fork_count + :delta WHERE id = :treeId", nativeQuery = true)
+    void addToForkCount(@Param("treeId") Long treeId, @Param("delta") int delta);
+
+    /**
+     * Sets fork_count to the number of live forks wherever it is missing or wrong.
+     */
+    @Modifying
+    @Query(value = "UPDATE trees t " +
+        "LEFT JOIN (SELECT parent_tree_id, COUNT(*) AS forks FROM trees " +
+        "WHERE parent_tree_id IS NOT NULL AND deleted_at IS NULL GROUP BY parent_tree_id) f " +
+        "ON f.parent_tree_id = t.id " +
+        "SET t.fork_count = COALESCE(f.forks, 0) " +
+        "WHERE t.fork_count IS NULL OR t.fork_count <> COALESCE(f.forks, 0)",
+        nativeQuery = true)
+    int recountForks();
+
+    /**
+     * Returns id, parent id, title, distance, fork count and deleted flag of every tree {@code treeId} descends
+     * from, nearest first.
+     */
+    @Query(value = "WITH RECURSIVE lineage (id, distance) AS (" +
+        "SELECT parent_tree_id, 1 FROM trees WHERE id = :treeId AND parent_tree_id IS NOT NULL " +
+        "UNION ALL " +
+        "SELECT t.parent_tree_id, l.distance + 1 FROM trees t INNER JOIN lineage l ON t.id = l.id " +
+        "WHERE t.parent_tree_id IS NOT NULL AND l.distance < :maxDistance) " +
+        "SELECT t.id, t.parent_tree_id, t.title, l.distance, t.fork_count, t.deleted_at IS NOT NULL " +
+        "FROM lineage l INNER JOIN trees t ON t.id = l.id " +
+        "ORDER BY l.distance",
+        nativeQuery = true)
+    List<Object[]> findForkAncestors(@Param("treeId") Long treeId, @Param("maxDistance") int maxDistance);
+
+    /**
+     * Returns the same columns as {@link #findForkAncestors} for every fork of {@code treeId}, direct or not.
+     */
+    @Query(value = "WITH RECURSIVE lineage (id, distance) AS (" +
+        "SELECT id, 1 FROM trees WHERE parent_tree_id = :treeId " +
+        "UNION ALL " +
+        "SELECT t.id, l.distance + 1 FROM trees t INNER JOIN lineage l ON t.parent_tree_id = l.id " +
+        "WHERE l.distance < :maxDistance) " +
+        "SELECT t.id, t.parent_tree_id, t.title, l.distance, t.fork_count, t.deleted_at IS NOT NULL " +
+        "FROM lineage l INNER JOIN trees t ON t.id = l.id " +
+        "ORDER BY l.distance, t.id",
+        nativeQuery = true)
+    List<Object[]> findForkDescendants(@Param("treeId") Long treeId, @Param("maxDistance") int maxDistance);
+
+    @Query("SELECT t.id, t.rootNodeId FROM Tree t")
+    List<Object[]> findAllRootNodeIds();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Tree t WHERE t.id = :treeId")
+    Optional<Tree> findByIdForUpdate(@Param("treeId") Long treeId);
+
+    @Query("SELECT t.owner.id FROM Tree t WHERE t.id = :treeId")
+    Optional<Long> findOwnerId(@Param("treeId") Long treeId);
+
+    @Query(value = "SELECT user_id FROM tree_editors WHERE tree_id = :treeId", nativeQuery = true)
+    List<Long> findEditorIds(@Param("treeId") Long treeId);
+
+    @Query("SELECT t.id FROM Tree t WHERE t.id > :afterId ORDER BY t.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE trees SET node_count = node_count + :delta, updated_at = NOW() WHERE id = :treeId",
+        nativeQuery = true)
+    void addToNodeCount(@Param("treeId") Long treeId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE trees SET max_depth = (" +
+        "SELECT COALESCE(MAX(l.depth), 0) FROM tree_level_counts l WHERE l.tree_id = :treeId AND l.node_count > 0" +
+        ") WHERE id = :treeId",
+        nativeQuery = true)
+    void refreshMaxDepth(@Param("treeId") Long treeId);
+
+    @Modifying
+    @Query(value = "UPDATE trees SET node_count = (" +
+        "SELECT COALESCE(SUM(l.node_count), 0) FROM tree_level_counts l WHERE l.tree_id = :treeId" +
+        ") WHERE id = :treeId",
+        nativeQuery = true)
+    void refreshNodeCount(@Param("treeId") Long treeId);
+
+    @Modifying
+    @Query(value = "UPDATE trees SET node_count = :nodeCount, max_depth = :maxDepth WHERE id = :treeId",
+        nativeQuery = true)
+    void setStatistics(@Param("treeId") Long treeId,
+                       @Param("nodeCount") int nodeCount,
+                       @Param("maxDepth") int maxDepth);
 }
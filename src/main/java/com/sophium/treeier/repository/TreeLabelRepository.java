@@ -0,0 +1,155 @@
+package com.sophium.treeier.repository;
+
+import com.sophium.treeier.entity.Tree;
+import com.sophium.treeier.exception.InvalidSortException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.sophium.treeier.util.Constants.INVALID_SORT_PROPERTY;
+
+/**
+ * Finds trees carrying all of a set of labels through the (label_key, label_value, tree_id) index on
+ * {@code tree_labels}. Labels are joined from the most selective one, so every further join only probes the index
+ * for the trees that are still candidates.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TreeLabelRepository {
+
+    private static final String COUNT_TREES_WITH_LABEL =
+        "SELECT ? AS position, COUNT(*) FROM tree_labels WHERE label_key = ? AND label_value = ?";
+
+    /**
+     * Tree properties a label search can be sorted by, with their columns.
+     */
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+        "id", "t.id",
+        "title", "t.title",
+        "createdAt", "t.created_at",
+        "updatedAt", "t.updated_at",
+        "nodeCount", "t.node_count",
+        "maxDepth", "t.max_depth",
+        "forkCount", "t.fork_count");
+
+    private final TreeJpaRepository treeRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns one page of the trees carrying all labels. Sorting, LIMIT and OFFSET are applied in the database, so
+     * only the ids of the requested page are read, and the total is counted over the same join.
+     */
+    public Page<Tree> findByLabels(Map<String, String> labels, Pageable pageable) {
+        List<Map.Entry<String, String>> labelsBySelectivity = orderBySelectivity(labels);
+        if (labelsBySelectivity.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        List<Object> args = new ArrayList<>(labelsBySelectivity.size() * 2 + 2);
+        String fromClause = fromTreesWithAllLabels(labelsBySelectivity, args);
+
+        StringBuilder pageSql = new StringBuilder("SELECT STRAIGHT_JOIN t.id").append(fromClause)
+            .append(orderBy(pageable.getSort()));
+        List<Object> pageArgs = new ArrayList<>(args);
+        if (pageable.isPaged()) {
+            pageSql.append(" LIMIT ? OFFSET ?");
+            pageArgs.add(pageable.getPageSize());
+            pageArgs.add(pageable.getOffset());
+        }
+        List<Long> treeIds = jdbcTemplate.queryForList(pageSql.toString(), Long.class, pageArgs.toArray());
+
+        return PageableExecutionUtils.getPage(findAllInOrder(treeIds), pageable, () ->
+            jdbcTemplate.queryForObject("SELECT STRAIGHT_JOIN COUNT(*)" + fromClause, Long.class, args.toArray()));
+    }
+
+    /**
+     * Returns the labels ordered by the number of trees carrying them, fewest first. Returns an empty list when
+     * some label is not used by any tree, as then no tree can match them all.
+     */
+    private List<Map.Entry<String, String>> orderBySelectivity(Map<String, String> labels) {
+        List<Map.Entry<String, String>> requested = new ArrayList<>(labels.entrySet());
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>(requested.size() * 3);
+        for (int i = 0; i < requested.size(); i++) {
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append(COUNT_TREES_WITH_LABEL);
+            args.add(i);
+            args.add(requested.get(i).getKey());
+            args.add(requested.get(i).getValue());
+        }
+
+        long[] treesPerLabel = new long[requested.size()];
+        jdbcTemplate.query(sql.toString(), rs -> {
+            treesPerLabel[rs.getInt(1)] = rs.getLong(2);
+        }, args.toArray());
+
+        if (Arrays.stream(treesPerLabel).anyMatch(trees -> trees == 0)) {
+            return List.of();
+        }
+        return IntStream.range(0, requested.size()).boxed()
+            .sorted(Comparator.comparingLong(i -> treesPerLabel[i]))
+            .map(requested::get)
+            .toList();
+    }
+
+    /**
+     * Builds the FROM clause joining one {@code tree_labels} row per label, each matching its own key and value,
+     * and then the live trees. STRAIGHT_JOIN keeps the selectivity order instead of letting the optimizer guess it.
+     */
+    private static String fromTreesWithAllLabels(List<Map.Entry<String, String>> labels, List<Object> args) {
+        StringBuilder sql = new StringBuilder(" FROM tree_labels l0");
+        for (int i = 1; i < labels.size(); i++) {
+            sql.append(" INNER JOIN tree_labels l").append(i)
+                .append(" ON l").append(i).append(".label_key = ?")
+                .append(" AND l").append(i).append(".label_value = ?")
+                .append(" AND l").append(i).append(".tree_id = l0.tree_id");
+            args.add(labels.get(i).getKey());
+            args.add(labels.get(i).getValue());
+        }
+        sql.append(" INNER JOIN trees t ON t.id = l0.tree_id AND t.deleted_at IS NULL")
+            .append(" WHERE l0.label_key = ? AND l0.label_value = ?");
+        args.add(labels.get(0).getKey());
+        args.add(labels.get(0).getValue());
+        return sql.toString();
+    }
+
+    private static String orderBy(Sort sort) {
+        StringBuilder sql = new StringBuilder(" ORDER BY ");
+        boolean orderedById = false;
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new InvalidSortException(String.format(INVALID_SORT_PROPERTY, order.getProperty()));
+            }
+            sql.append(column).append(order.isAscending() ? " ASC, " : " DESC, ");
+            orderedById |= order.getProperty().equals("id");
+        }
+        // ties are broken by id so that pages do not overlap
+        return orderedById ? sql.substring(0, sql.length() - 2) : sql.append("t.id").toString();
+    }
+
+    private List<Tree> findAllInOrder(List<Long> treeIds) {
+        if (treeIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Tree> treesById = treeRepository.findAllById(treeIds).stream()
+            .collect(Collectors.toMap(Tree::getId, Function.identity()));
+        return treeIds.stream().map(treesById::get).filter(Objects::nonNull).toList();
+    }
+}
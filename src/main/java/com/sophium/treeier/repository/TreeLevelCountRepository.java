@@ -0,0 +1,58 @@
+package com.sophium.treeier.repository;
+
+import com.sophium.treeier.entity.TreeLevelCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface TreeLevelCountRepository extends JpaRepository<TreeLevelCount, TreeLevelCount.TreeLevelCountId> {
+
+    List<TreeLevelCount> findByTreeIdOrderByDepth(Long treeId);
+
+    boolean existsByTreeId(Long treeId);
+
+    /**
+     * Counts the nodes per depth of one tree from the closure table.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tree_level_counts (tree_id, depth, node_count) " +
+        "SELECT t.id, c.depth, COUNT(DISTINCT c.descendant) FROM trees t " +
+        "INNER JOIN closure_entity c ON c.ancestor = t.root_node_id " +
+        "WHERE t.id = :treeId GROUP BY t.id, c.depth",
+        nativeQuery = true)
+    void seedLevels(@Param("treeId") Long treeId);
+
+    /**
+     * Counts the nodes per depth from the closure table for every live tree without a histogram. Rows a concurrent
+     * writer seeded first are kept.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO tree_level_counts (tree_id, depth, node_count) " +
+        "SELECT t.id, c.depth, COUNT(DISTINCT c.descendant) FROM trees t " +
+        "INNER JOIN closure_entity c ON c.ancestor = t.root_node_id " +
+        "WHERE t.deleted_at IS NULL " +
+        "AND NOT EXISTS (SELECT 1 FROM tree_level_counts l WHERE l.tree_id = t.id) " +
+        "GROUP BY t.id, c.depth",
+        nativeQuery = true)
+    int seedMissingLevels();
+
+    @Modifying
+    @Query(value = "INSERT INTO tree_level_counts (tree_id, depth, node_count) " +
+        "VALUES (:treeId, :depth, :delta) " +
+        "ON DUPLICATE KEY UPDATE node_count = node_count + :delta",
+        nativeQuery = true)
+    void addToLevel(@Param("treeId") Long treeId, @Param("depth") int depth, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "INSERT INTO tree_level_counts (tree_id, depth, node_count) " +
+        "SELECT :targetTreeId, l.depth, l.node_count FROM tree_level_counts l WHERE l.tree_id = :sourceTreeId",
+        nativeQuery = true)
+    void copyLevels(@Param("sourceTreeId") Long sourceTreeId, @Param("targetTreeId") Long targetTreeId);
+
+    @Modifying
+    @Query("DELETE FROM TreeLevelCount l WHERE l.treeId = :treeId")
+    void deleteByTreeId(@Param("treeId") Long treeId);
+}
@@ -1,6 +1,7 @@
 package com.sophium.treeier.repository;
 
 import com.sophium.treeier.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,4 +18,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
         "LOWER(u.name) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<User> searchByEmailOrName(@Param("query") String query);
 
+    @Query("SELECT u.id, u.name, u.email FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findSearchEntriesAfter(@Param("afterId") long afterId, Limit limit);
+
 }
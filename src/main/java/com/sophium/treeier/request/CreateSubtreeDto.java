@@ -0,0 +1,23 @@
+package com.sophium.treeier.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreateSubtreeDto {
+    private Long parentId;
+
+    @NotEmpty
+    @Valid
+    private List<CreateSubtreeNodeDto> nodes;
+
+}
@@ -0,0 +1,31 @@
+package com.sophium.treeier.request;
+
+import com.sophium.treeier.entity.NodeType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreateSubtreeNodeDto {
+    @Size(max = 255)
+    private String title;
+    @Size(max = 1000)
+    private String description;
+    @Builder.Default
+    private NodeType nodeType = NodeType.DEFAULT;
+    private Boolean flagValue;
+    private String linkValue;
+    @Valid
+    @Builder.Default
+    private List<CreateSubtreeNodeDto> children = new ArrayList<>();
+
+}
@@ -0,0 +1,24 @@
+package com.sophium.treeier.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TreeOperationDto {
+    @NotNull
+    private TreeOperationType type;
+
+    @NotNull
+    private Long nodeId;
+
+    /**
+     * Required for {@link TreeOperationType#MOVE}.
+     */
+    private Long newParentId;
+}
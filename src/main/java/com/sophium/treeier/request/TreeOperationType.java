@@ -0,0 +1,6 @@
+package com.sophium.treeier.request;
+
+public enum TreeOperationType {
+    MOVE,
+    DELETE
+}
@@ -5,6 +5,7 @@ import com.sophium.treeier.dto.TreeUpdateNotification;
 import com.sophium.treeier.entity.ChangelogEntry;
 import com.sophium.treeier.repository.ChangelogRepository;
 import com.sophium.treeier.repository.TreeJpaRepository;
+import com.sophium.treeier.service.changelog.ChangelogWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -15,18 +16,13 @@ import java.util.List;
 public class ChangelogService {
 
     private final ChangelogRepository changelogRepository;
+    private final ChangelogWriter changelogWriter;
 
-
-    public void record(TreeUpdateNotification notification) {
-        changelogRepository.save(ChangelogEntry.builder()
-            .treeId(notification.getTreeId())
-            .nodeId(notification.getNodeId())
-            .nodeTitle(notification.getNodeTitle())
-            .operation(notification.getOperationType())
-            .authorEmail(notification.getAuthorEmail())
-            .authorName(notification.getAuthorName())
-            .changedAt(notification.getTimestamp())
-            .build());
+    /**
+     * Writes the entries of all notifications in the caller's transaction with multi-row inserts.
+     */
+    public void recordAll(List<TreeUpdateNotification> notifications) {
+        changelogWriter.writeAll(notifications.stream().map(ChangelogService::toEntry).toList());
     }
 
     public List<ChangelogEntryDto> getByTreeId(Long treeId) {
@@ -43,4 +39,16 @@ public class ChangelogService {
                 .build())
             .toList();
     }
+
+    private static ChangelogEntry toEntry(TreeUpdateNotification notification) {
+        return ChangelogEntry.builder()
+            .treeId(notification.getTreeId())
+            .nodeId(notification.getNodeId())
+            .nodeTitle(notification.getNodeTitle())
+            .operation(notification.getOperationType())
+            .authorEmail(notification.getAuthorEmail())
+            .authorName(notification.getAuthorName())
+            .changedAt(notification.getTimestamp())
+            .build();
+    }
 }
@@ -0,0 +1,29 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.repository.TreeJpaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Recounts {@code trees.fork_count} for rows written before the count was maintained, or whose count drifted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ForkCountBackfill {
+
+    private final TreeJpaRepository treeRepository;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int updated = treeRepository.recountForks();
+        if (updated > 0) {
+            log.info("Recounted forks of {} trees", updated);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.repository.NodeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code nodes.depth} from the closure table for rows written before depth became a persisted column.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NodeDepthBackfill {
+
+    private final NodeRepository nodeRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int updated = nodeRepository.backfillNodeDepths();
+        if (updated > 0) {
+            log.info("Backfilled depth for {} nodes", updated);
+        }
+    }
+}
@@ -1,20 +1,35 @@
 package com.sophium.treeier.service;
 
+import com.sophium.treeier.dto.NodeChildrenPageDto;
 import com.sophium.treeier.dto.NodeDto;
+import com.sophium.treeier.dto.NodePathItemDto;
+import com.sophium.treeier.dto.NodeSummaryDto;
 import com.sophium.treeier.dto.OperationType;
+import com.sophium.treeier.dto.TreeOperationsResultDto;
 import com.sophium.treeier.dto.TreeUpdateNotification;
+import com.sophium.treeier.entity.ClosureEntity;
+import com.sophium.treeier.entity.NodeType;
 import com.sophium.treeier.entity.Tree;
 import com.sophium.treeier.entity.User;
 import com.sophium.treeier.exception.CyclicalTreeStructureException;
 import com.sophium.treeier.exception.DepthLimitException;
+import com.sophium.treeier.exception.InvalidNodeException;
 import com.sophium.treeier.exception.MoveAttemptToSelfException;
 import com.sophium.treeier.exception.NotFoundException;
-import com.sophium.treeier.exception.NodeAlreadyExistsException;
+import com.sophium.treeier.exception.RequiredFieldException;
 import com.sophium.treeier.mapper.NodeMapper;
 import com.sophium.treeier.repository.NodeRepository;
 import com.sophium.treeier.repository.TreeJpaRepository;
+import com.sophium.treeier.request.CreateSubtreeNodeDto;
+import com.sophium.treeier.request.TreeOperationDto;
+import com.sophium.treeier.request.TreeOperationType;
 import com.sophium.treeier.request.UpdateTreeNodeDto;
+import com.sophium.treeier.service.cache.NodePathCache;
+import com.sophium.treeier.service.concurrency.TreeWriteLocks;
+import com.sophium.treeier.service.deletion.SubtreeDeletionService;
+import com.sophium.treeier.service.id.NodeIdGenerator;
 import com.sophium.treeier.service.messaging.TreeNotificationService;
+import com.sophium.treeier.service.security.AuthorizationContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
@@ -22,15 +37,22 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
-import static com.sophium.treeier.util.AuthUtil.getAuthenticatedUserEmail;
 import static com.sophium.treeier.util.Constants.CANNOT_MOVE_NODE_TO_A_DESCENDANT_OF_ITSELF;
-import static com.sophium.treeier.util.Constants.MAXIMUM_NODES_LIMIT_REACHED;
+import static com.sophium.treeier.util.Constants.MAXIMUM_DEPTH_LIMIT_REACHED;
 import static com.sophium.treeier.util.Constants.MOVE_NODE_TO_ITSELF;
-import static com.sophium.treeier.util.Constants.NODE_ID_ALREADY_EXISTS;
+import static com.sophium.treeier.util.Constants.NODE_DOES_NOT_EXIST_IN_THIS_TREE;
 import static com.sophium.treeier.util.Constants.NODE_NOT_FOUND;
+import static com.sophium.treeier.util.Constants.OPERATION_FAILED;
+import static com.sophium.treeier.util.Constants.REQUIRED_FIELD;
+import static com.sophium.treeier.util.Constants.ROOT_NODE_CANNOT_BE_CHANGED;
+import static com.sophium.treeier.util.Constants.TOO_MANY_NODES_REQUESTED;
 import static com.sophium.treeier.util.Constants.TREE_NOT_FOUND;
 import static com.sophium.treeier.util.Constants.USER_CANNOT_EDIT_THIS_TREE;
 
@@ -39,32 +61,82 @@ import static com.sophium.treeier.util.Constants.USER_CANNOT_EDIT_THIS_TREE;
 @RequiredArgsConstructor
 public class NodeService {
 
+    private static final int MAX_DEPTH = 5;
+    private static final int MAX_CHILDREN_PAGE_SIZE = 500;
+    private static final int MAX_PATHS_BATCH_SIZE = 500;
+
     private final NodeRepository nodeRepository;
     private final TreeJpaRepository treeRepository;
     private final NodeMapper nodeMapper;
-    private final UserService userService;
     private final TreeNotificationService treeNotificationService;
+    private final NodeIdGenerator nodeIdGenerator;
+    private final TreeStatisticsService treeStatisticsService;
+    private final TreeWriteLocks treeWriteLocks;
+    private final AuthorizationContext authorizationContext;
+    private final SubtreeDeletionService subtreeDeletionService;
+    private final NodePathCache nodePathCache;
 
     public NodeDto findById(Long id) {
         return nodeRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public NodeChildrenPageDto findChildren(Long nodeId, Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CHILDREN_PAGE_SIZE));
+        List<NodeSummaryDto> children = nodeRepository.findChildSummaries(nodeId, afterId != null ? afterId : Long.MIN_VALUE, pageSize + 1);
+        if (children.isEmpty() && !nodeRepository.existsById(nodeId)) {
+            throw new NotFoundException(String.format(NODE_NOT_FOUND, nodeId));
+        }
+
+        Long nextCursor = null;
+        if (children.size() > pageSize) {
+            children = children.subList(0, pageSize);
+            nextCursor = children.get(pageSize - 1).getId();
+        }
+        return new NodeChildrenPageDto(children, nextCursor);
+    }
+
+    /**
+     * Returns the node's ancestors from the tree root down, the node itself last.
+     */
+    public List<NodePathItemDto> findPath(Long nodeId) {
+        List<NodePathItemDto> path = findPaths(List.of(nodeId)).get(nodeId);
+        if (path == null) {
+            throw new NotFoundException(String.format(NODE_NOT_FOUND, nodeId));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the paths of all existing nodes among {@code nodeIds}; unknown ids are left out.
+     */
+    public Map<Long, List<NodePathItemDto>> findPaths(Collection<Long> nodeIds) {
+        if (nodeIds.size() > MAX_PATHS_BATCH_SIZE) {
+            throw new InvalidNodeException(String.format(TOO_MANY_NODES_REQUESTED, MAX_PATHS_BATCH_SIZE));
+        }
+        return nodePathCache.getAll(nodeIds, nodeRepository::findPaths);
+    }
+
     public List<NodeDto> findAllNodesFromRoot(Long rootId) {
         return nodeMapper.toDtos(nodeRepository.findAllTreeNodes(rootId));
     }
 
     @Transactional
     public NodeDto createNode(Long treeId, NodeDto node) {
-        if (Objects.nonNull(node.getParentId()) && !nodeRepository.canAddChild(node.getParentId())) {
-            throw new DepthLimitException(MAXIMUM_NODES_LIMIT_REACHED);
-        }
-
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
-        verifyCanEdit(treeId, currentUser);
-
-        NodeDto existingNode = nodeRepository.findById(node.getId());
-        if (Objects.nonNull(existingNode)) {
-            throw new NodeAlreadyExistsException(NODE_ID_ALREADY_EXISTS);
+        User currentUser = authorizationContext.getCurrentUser();
+        verifyCanEdit(treeId);
+
+        if (Objects.nonNull(node.getParentId())) {
+            NodeDto parent = nodeRepository.findById(node.getParentId());
+            if (Objects.isNull(parent)) {
+                throw new NotFoundException(String.format(NODE_NOT_FOUND, node.getParentId()));
+            }
+            if (parent.getDepth() >= MAX_DEPTH - 1) {
+                throw new DepthLimitException(MAXIMUM_DEPTH_LIMIT_REACHED);
+            }
+            node.setDepth(parent.getDepth() + 1);
+        } else {
+            node.setDepth(0);
         }
 
         NodeDto resultNode = nodeRepository.createNode(node);
@@ -72,6 +144,7 @@ public class NodeService {
         if (Objects.nonNull(resultNode.getParentId())) {
             nodeRepository.addNodeToParent(resultNode.getId(), resultNode.getParentId());
         }
+        treeStatisticsService.recordNodesAdded(treeId, Map.of(resultNode.getDepth(), 1));
 
         treeNotificationService.notify(TreeUpdateNotification.builder()
             .treeId(treeId)
@@ -86,16 +159,113 @@ public class NodeService {
         return resultNode;
     }
 
+    @Transactional
+    public List<NodeDto> createSubtree(Long treeId, Long rootNodeId, Long parentId, List<CreateSubtreeNodeDto> nodes) {
+        User currentUser = authorizationContext.getCurrentUser();
+        verifyCanEdit(treeId);
+
+        NodeDto parent = nodeRepository.findById(parentId);
+        if (Objects.isNull(parent) || !Objects.equals(parent.getRootId(), rootNodeId)) {
+            throw new InvalidNodeException(String.format(NODE_DOES_NOT_EXIST_IN_THIS_TREE, parentId));
+        }
+
+        Map<Long, Integer> parentAncestors = nodeRepository.findAncestorDepths(parentId);
+        List<NodeDto> nodeRows = new ArrayList<>();
+        List<ClosureEntity> closureRows = new ArrayList<>();
+
+        List<NodeDto> created = new ArrayList<>(nodes.size());
+        for (CreateSubtreeNodeDto source : nodes) {
+            created.add(buildSubtreeNode(source, parent.getId(), parent.getDepth() + 1, rootNodeId,
+                parentAncestors, nodeRows, closureRows));
+        }
+
+        nodeRepository.batchInsertNodes(nodeRows);
+        nodeRepository.batchInsertClosureEntries(closureRows);
+
+        Map<Integer, Integer> countsPerDepth = new HashMap<>();
+        nodeRows.forEach(row -> countsPerDepth.merge(row.getDepth(), 1, Integer::sum));
+        treeStatisticsService.recordNodesAdded(treeId, countsPerDepth);
+
+        NodeDto first = created.get(0);
+        treeNotificationService.notify(TreeUpdateNotification.builder()
+            .treeId(treeId)
+            .nodeId(first.getId())
+            .nodeTitle(first.getTitle())
+            .operationType(OperationType.NODE_CREATED)
+            .newParentId(parentId)
+            .createdNodeIds(nodeRows.stream().map(NodeDto::getId).toList())
+            .authorEmail(currentUser.getEmail())
+            .authorName(currentUser.getName())
+            .timestamp(Instant.now())
+            .build());
+
+        return created;
+    }
+
+    /**
+     * Adds the node and its descendants to the row lists. {@code ancestorDistances} maps every ancestor of the
+     * node's parent, the parent included, to its distance from the parent.
+     */
+    private NodeDto buildSubtreeNode(CreateSubtreeNodeDto source, Long parentId, int depth, Long rootNodeId,
+                                     Map<Long, Integer> ancestorDistances,
+                                     List<NodeDto> nodeRows, List<ClosureEntity> closureRows) {
+        if (depth >= MAX_DEPTH) {
+            throw new DepthLimitException(MAXIMUM_DEPTH_LIMIT_REACHED);
+        }
+
+        NodeDto node = NodeDto.builder()
+            .id(nodeIdGenerator.nextId())
+            .parentId(parentId)
+            .rootId(rootNodeId)
+            .title(source.getTitle())
+            .description(source.getDescription())
+            .nodeType(Objects.requireNonNullElse(source.getNodeType(), NodeType.DEFAULT))
+            .flagValue(source.getFlagValue())
+            .linkValue(source.getLinkValue())
+            .depth(depth)
+            .children(new ArrayList<>())
+            .build();
+        nodeRows.add(node);
+
+        closureRows.add(closureEntry(node.getId(), node.getId(), 0, parentId, rootNodeId));
+        ancestorDistances.forEach((ancestor, distance) ->
+            closureRows.add(closureEntry(ancestor, node.getId(), distance + 1, parentId, rootNodeId)));
+
+        if (Objects.nonNull(source.getChildren()) && !source.getChildren().isEmpty()) {
+            Map<Long, Integer> childAncestorDistances = new HashMap<>(ancestorDistances.size() + 1);
+            ancestorDistances.forEach((ancestor, distance) -> childAncestorDistances.put(ancestor, distance + 1));
+            childAncestorDistances.put(node.getId(), 0);
+
+            for (CreateSubtreeNodeDto child : source.getChildren()) {
+                node.getChildren().add(buildSubtreeNode(child, node.getId(), depth + 1, rootNodeId,
+                    childAncestorDistances, nodeRows, closureRows));
+            }
+        }
+
+        return node;
+    }
+
+    private static ClosureEntity closureEntry(Long ancestor, Long descendant, int depth, Long parent, Long root) {
+        return ClosureEntity.builder()
+            .ancestor(ancestor)
+            .descendant(descendant)
+            .depth(depth)
+            .parent(parent)
+            .root(root)
+            .build();
+    }
+
     @Transactional
     public NodeDto updateNode(Long treeId, Long nodeId, UpdateTreeNodeDto updateNodeDto) {
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
-        verifyCanEdit(treeId, currentUser);
+        User currentUser = authorizationContext.getCurrentUser();
+        verifyCanEdit(treeId);
 
         NodeDto updatedNode = nodeRepository.findById(nodeId);
         if (Objects.isNull(updatedNode)) {
             throw new NotFoundException(String.format(NODE_NOT_FOUND, nodeId));
         }
 
+        invalidatePaths(nodeId);
         updatedNode.setTitle(updateNodeDto.getTitle());
         updatedNode.setDescription(updateNodeDto.getDescription());
         updatedNode.setFlagValue(updateNodeDto.getFlagValue());
@@ -116,6 +286,8 @@ public class NodeService {
 
     @Transactional
     public void moveNode(Long treeId, Long nodeId, Long newParentId) throws NotFoundException, CyclicalTreeStructureException, MoveAttemptToSelfException {
+        treeWriteLocks.lockUntilCompletion(treeId);
+
         if (Objects.equals(nodeId, newParentId)) {
             throw new MoveAttemptToSelfException(MOVE_NODE_TO_ITSELF);
         }
@@ -124,26 +296,35 @@ public class NodeService {
             throw new CyclicalTreeStructureException(CANNOT_MOVE_NODE_TO_A_DESCENDANT_OF_ITSELF);
         }
 
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
-        verifyCanEdit(treeId, currentUser);
+        User currentUser = authorizationContext.getCurrentUser();
+        Tree tree = verifyCanEdit(treeId);
 
         NodeDto node = nodeRepository.findById(nodeId);
         if (Objects.isNull(node)) {
             throw new NotFoundException(String.format(NODE_NOT_FOUND, nodeId));
         }
+        verifyBelongsToTree(node, tree);
 
         NodeDto newParent = nodeRepository.findById(newParentId);
         if (Objects.isNull(newParent)) {
             throw new NotFoundException(String.format(NODE_NOT_FOUND, newParentId));
         }
+        verifyBelongsToTree(newParent, tree);
 
         Long oldParentId = node.getParentId();
-        node.setParentId(newParentId);
-        node.setRootId(newParent.getRootId());
+        int oldDepth = node.getDepth();
+        int newDepth = newParent.getDepth() + 1;
+
+        // one aggregate over the subtree gives both the statistics delta and its height
+        Map<Integer, Integer> subtreeCountsPerDepth = nodeRepository.countNodesPerLevel(nodeId);
+        int subtreeHeight = subtreeCountsPerDepth.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        if (newDepth + subtreeHeight >= MAX_DEPTH) {
+            throw new DepthLimitException(MAXIMUM_DEPTH_LIMIT_REACHED);
+        }
 
-        nodeRepository.removeNodeFromParent(node.getId(), oldParentId);
-        nodeRepository.updateNode(node);
-        nodeRepository.addNodeToParent(nodeId, newParentId);
+        invalidatePaths(nodeId);
+        nodeRepository.moveSubtree(nodeId, newParentId, newParent.getRootId(), newDepth - oldDepth);
+        treeStatisticsService.recordSubtreeMoved(treeId, subtreeCountsPerDepth, oldDepth, newDepth);
 
         treeNotificationService.notify(TreeUpdateNotification.builder()
             .treeId(treeId)
@@ -158,13 +339,29 @@ public class NodeService {
             .build());
     }
 
+    @Transactional
     public List<Long> deleteNodeAndDescendants(Long treeId, Long nodeId) {
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
-        verifyCanEdit(treeId, currentUser);
+        treeWriteLocks.lockUntilCompletion(treeId);
+
+        User currentUser = authorizationContext.getCurrentUser();
+        Tree tree = verifyCanEdit(treeId);
+
+        NodeDto node = nodeRepository.findById(nodeId);
+        if (Objects.isNull(node)) {
+            throw new NotFoundException(String.format(NODE_NOT_FOUND, nodeId));
+        }
+        verifyBelongsToTree(node, tree);
+
+        Map<Integer, Integer> removedCountsPerDepth = new HashMap<>();
+        nodeRepository.countNodesPerLevel(nodeId).forEach((relativeDepth, count) ->
+            removedCountsPerDepth.put(node.getDepth() + relativeDepth, count));
 
         log.info("Deleting node {} and its descendants", nodeId);
-        List<Long> deletedNodes = nodeRepository.deleteNodeAndDescendants(nodeId);
+        int subtreeSize = removedCountsPerDepth.values().stream().mapToInt(Integer::intValue).sum();
+        invalidatePaths(nodeId);
+        List<Long> deletedNodes = subtreeDeletionService.delete(treeId, nodeId, subtreeSize);
         log.info("Deleted nodes: {}", deletedNodes);
+        treeStatisticsService.recordNodesRemoved(treeId, removedCountsPerDepth);
 
         treeNotificationService.notify(TreeUpdateNotification.builder()
             .treeId(treeId)
@@ -179,12 +376,129 @@ public class NodeService {
         return deletedNodes;
     }
 
-    private void verifyCanEdit(Long treeId, User currentUser) {
+    /**
+     * Applies an ordered batch of moves and deletes. The whole batch is validated against an in-memory outline of
+     * the tree first, so either every operation is applied or none is; statistics and notifications are then
+     * written once for the batch.
+     */
+    @Transactional
+    public TreeOperationsResultDto applyOperations(Long treeId, List<TreeOperationDto> operations) {
+        treeWriteLocks.lockUntilCompletion(treeId);
+
+        User currentUser = authorizationContext.getCurrentUser();
+        Tree tree = verifyCanEdit(treeId);
+        Long rootId = tree.getRootNodeId();
+
+        TreeView view = new TreeView(rootId, nodeRepository.findTreeOutline(rootId));
+        Map<Integer, Integer> countsBefore = view.countNodesPerDepth();
+        List<PlannedOperation> plan = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            plan.add(planOperation(view, i, operations.get(i)));
+        }
+
+        List<Long> movedNodeIds = new ArrayList<>();
+        List<Long> deletedNodeIds = new ArrayList<>();
+        List<TreeUpdateNotification> notifications = new ArrayList<>(plan.size());
+        Instant now = Instant.now();
+        for (PlannedOperation operation : plan) {
+            TreeUpdateNotification.TreeUpdateNotificationBuilder notification = TreeUpdateNotification.builder()
+                .treeId(treeId)
+                .nodeId(operation.nodeId())
+                .nodeTitle(operation.title())
+                .authorEmail(currentUser.getEmail())
+                .authorName(currentUser.getName())
+                .timestamp(now);
+
+            invalidatePaths(operation.nodeId());
+            if (operation.type() == TreeOperationType.MOVE) {
+                nodeRepository.moveSubtree(operation.nodeId(), operation.newParentId(), rootId, operation.depthDelta());
+                movedNodeIds.add(operation.nodeId());
+                notification.operationType(OperationType.NODE_MOVED)
+                    .oldParentId(operation.oldParentId())
+                    .newParentId(operation.newParentId());
+            } else {
+                List<Long> deleted = subtreeDeletionService.delete(treeId, operation.nodeId(), operation.subtreeSize());
+                deletedNodeIds.addAll(deleted);
+                notification.operationType(OperationType.NODE_DELETED)
+                    .deletedNodeIds(deleted);
+            }
+            notifications.add(notification.build());
+        }
+
+        Map<Integer, Integer> deltas = new HashMap<>();
+        countsBefore.forEach((depth, count) -> deltas.merge(depth, -count, Integer::sum));
+        view.countNodesPerDepth().forEach((depth, count) -> deltas.merge(depth, count, Integer::sum));
+        treeStatisticsService.recordLevelChanges(treeId, deltas);
+        treeNotificationService.notifyAll(treeId, notifications);
+
+        return new TreeOperationsResultDto(movedNodeIds, deletedNodeIds);
+    }
+
+    private PlannedOperation planOperation(TreeView view, int index, TreeOperationDto operation) {
+        Long nodeId = operation.getNodeId();
+        if (!view.contains(nodeId)) {
+            throw new NotFoundException(operationFailed(index, String.format(NODE_NOT_FOUND, nodeId)));
+        }
+        if (view.isRoot(nodeId)) {
+            throw new InvalidNodeException(operationFailed(index, String.format(ROOT_NODE_CANNOT_BE_CHANGED, nodeId)));
+        }
+
+        Long oldParentId = view.parentOf(nodeId);
+        String title = view.titleOf(nodeId);
+        if (operation.getType() == TreeOperationType.DELETE) {
+            int subtreeSize = view.removeSubtree(nodeId).size();
+            return new PlannedOperation(TreeOperationType.DELETE, nodeId, title, oldParentId, null, 0, subtreeSize);
+        }
+
+        Long newParentId = operation.getNewParentId();
+        if (newParentId == null) {
+            throw new RequiredFieldException(operationFailed(index, String.format(REQUIRED_FIELD, "newParentId")));
+        }
+        if (Objects.equals(nodeId, newParentId)) {
+            throw new MoveAttemptToSelfException(operationFailed(index, MOVE_NODE_TO_ITSELF));
+        }
+        if (!view.contains(newParentId)) {
+            throw new NotFoundException(operationFailed(index, String.format(NODE_NOT_FOUND, newParentId)));
+        }
+        if (view.isInSubtree(newParentId, nodeId)) {
+            throw new CyclicalTreeStructureException(operationFailed(index, CANNOT_MOVE_NODE_TO_A_DESCENDANT_OF_ITSELF));
+        }
+        int newDepth = view.depthOf(newParentId) + 1;
+        if (newDepth + view.subtreeHeight(nodeId) >= MAX_DEPTH) {
+            throw new DepthLimitException(operationFailed(index, MAXIMUM_DEPTH_LIMIT_REACHED));
+        }
+
+        int depthDelta = newDepth - view.depthOf(nodeId);
+        view.move(nodeId, newParentId);
+        return new PlannedOperation(TreeOperationType.MOVE, nodeId, title, oldParentId, newParentId, depthDelta, 0);
+    }
+
+    private static String operationFailed(int index, String reason) {
+        return String.format(OPERATION_FAILED, index, reason);
+    }
+
+    // the cached paths passing through a node are those of its subtree; read before the subtree changes
+    private void invalidatePaths(Long nodeId) {
+        nodePathCache.invalidate(nodeRepository.findSubtreeNodeIds(nodeId));
+    }
+
+    private Tree verifyCanEdit(Long treeId) {
         Tree tree = treeRepository.findById(treeId)
             .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
 
-        if (!tree.canEdit(currentUser)) {
+        if (!authorizationContext.canEdit(tree)) {
             throw new AccessDeniedException(USER_CANNOT_EDIT_THIS_TREE);
         }
+        return tree;
+    }
+
+    private void verifyBelongsToTree(NodeDto node, Tree tree) {
+        if (!Objects.equals(node.getRootId(), tree.getRootNodeId())) {
+            throw new InvalidNodeException(String.format(NODE_DOES_NOT_EXIST_IN_THIS_TREE, node.getId()));
+        }
+    }
+
+    private record PlannedOperation(TreeOperationType type, Long nodeId, String title,
+                                    Long oldParentId, Long newParentId, int depthDelta, int subtreeSize) {
     }
 }
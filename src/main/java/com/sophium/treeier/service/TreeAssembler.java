@@ -0,0 +1,45 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.dto.NodeDto;
+import com.sophium.treeier.entity.NodeEntity;
+import com.sophium.treeier.mapper.TreeNodeMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Links a flat, depth-ordered list of subtree nodes into nested {@link NodeDto}s in a single pass.
+ */
+@Component
+@RequiredArgsConstructor
+public class TreeAssembler {
+
+    private final TreeNodeMapper treeNodeMapper;
+
+    public List<NodeDto> assemble(List<NodeEntity> nodes) {
+        Map<Long, NodeDto> nodesById = new HashMap<>(nodes.size() * 2);
+        List<NodeDto> roots = new ArrayList<>();
+
+        for (NodeEntity node : nodes) {
+            if (nodesById.containsKey(node.getId())) {
+                continue;
+            }
+            NodeDto dto = treeNodeMapper.toDto(node);
+            dto.setChildren(new ArrayList<>());
+            nodesById.put(dto.getId(), dto);
+
+            NodeDto parent = dto.getParentId() != null ? nodesById.get(dto.getParentId()) : null;
+            if (parent != null) {
+                parent.getChildren().add(dto);
+            } else {
+                roots.add(dto);
+            }
+        }
+
+        return roots;
+    }
+}
@@ -0,0 +1,33 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static com.sophium.treeier.util.Constants.INVALID_CURSOR;
+
+/**
+ * Position in the tree listing ordered by (updatedAt, id) descending, passed to clients as an opaque string.
+ */
+record TreeCursor(LocalDateTime updatedAt, long id) {
+
+    private static final String SEPARATOR = "_";
+
+    String encode() {
+        String value = updatedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TreeCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new TreeCursor(LocalDateTime.parse(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(String.format(INVALID_CURSOR, cursor));
+        }
+    }
+}
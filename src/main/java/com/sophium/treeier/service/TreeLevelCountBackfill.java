@@ -0,0 +1,29 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.repository.TreeLevelCountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Seeds {@code tree_level_counts} from the closure table for trees written before the histogram was maintained.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TreeLevelCountBackfill {
+
+    private final TreeLevelCountRepository treeLevelCountRepository;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int inserted = treeLevelCountRepository.seedMissingLevels();
+        if (inserted > 0) {
+            log.info("Seeded {} level counts from the closure table", inserted);
+        }
+    }
+}
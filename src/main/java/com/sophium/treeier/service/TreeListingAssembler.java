@@ -0,0 +1,54 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.dto.TreeDto;
+import com.sophium.treeier.entity.Tree;
+import com.sophium.treeier.mapper.TreeMapper;
+import com.sophium.treeier.repository.TreeJpaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps a page of trees to {@link TreeDto}s with a fixed number of queries for the whole page: owner names, editor
+ * ids and fork ids are each loaded for all trees at once instead of through their lazy associations.
+ */
+@Component
+@RequiredArgsConstructor
+public class TreeListingAssembler {
+
+    private final TreeJpaRepository treeRepository;
+    private final TreeMapper treeMapper;
+
+    public List<TreeDto> assemble(List<Tree> trees) {
+        if (trees.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> treeIds = trees.stream().map(Tree::getId).toList();
+        Map<Long, String> ownerNames = new HashMap<>();
+        treeRepository.findOwnerNames(treeIds)
+            .forEach(row -> ownerNames.put(((Number) row[0]).longValue(), (String) row[1]));
+        Map<Long, Set<Long>> editorIds = new HashMap<>();
+        treeRepository.findEditorIdsByTreeIdIn(treeIds).forEach(row ->
+            editorIds.computeIfAbsent(((Number) row[0]).longValue(), id -> new HashSet<>()).add(((Number) row[1]).longValue()));
+        Map<Long, List<Long>> forkIds = new HashMap<>();
+        treeRepository.findForkIdsByParentIdIn(treeIds).forEach(row ->
+            forkIds.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>()).add(((Number) row[1]).longValue()));
+
+        List<TreeDto> dtos = new ArrayList<>(trees.size());
+        for (Tree tree : trees) {
+            TreeDto dto = treeMapper.toListingDto(tree);
+            dto.setOwnerName(ownerNames.get(tree.getId()));
+            dto.setEditorIds(editorIds.getOrDefault(tree.getId(), Set.of()));
+            dto.setForkIds(forkIds.getOrDefault(tree.getId(), List.of()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+}
@@ -1,13 +1,18 @@
 package com.sophium.treeier.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sophium.treeier.dto.ForkLineageDto;
 import com.sophium.treeier.dto.NodeDto;
+import com.sophium.treeier.dto.NodeRowDto;
 import com.sophium.treeier.dto.TreeDto;
+import com.sophium.treeier.dto.TreePageDto;
 import com.sophium.treeier.dto.TreeStatisticsDto;
 import com.sophium.treeier.dto.UpdateTreeDto;
-import com.sophium.treeier.entity.NodeEntity;
 import com.sophium.treeier.entity.Tree;
 import com.sophium.treeier.entity.User;
-import com.sophium.treeier.exception.DepthLimitException;
 import com.sophium.treeier.exception.InvalidNodeException;
 import com.sophium.treeier.exception.NotFoundException;
 import com.sophium.treeier.exception.NodeLimitException;
@@ -16,34 +21,48 @@ import com.sophium.treeier.mapper.TreeMapper;
 import com.sophium.treeier.mapper.TreeNodeMapper;
 import com.sophium.treeier.repository.NodeRepository;
 import com.sophium.treeier.repository.TreeJpaRepository;
+import com.sophium.treeier.repository.TreeLabelRepository;
 import com.sophium.treeier.repository.UserRepository;
 import com.sophium.treeier.request.CreateTreeDto;
+import com.sophium.treeier.request.CreateSubtreeDto;
+import com.sophium.treeier.request.CreateSubtreeNodeDto;
 import com.sophium.treeier.request.CreateTreeNodeDto;
+import com.sophium.treeier.service.cache.TreeSnapshotCache;
+import com.sophium.treeier.service.concurrency.TreeWriteLocks;
+import com.sophium.treeier.service.id.NodeIdGenerator;
+import com.sophium.treeier.service.lineage.ForkLineageService;
+import com.sophium.treeier.service.search.NodeSearchService;
+import com.sophium.treeier.service.security.AuthorizationContext;
+import com.sophium.treeier.service.security.TreeAclCache;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Comparator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
-import static com.sophium.treeier.util.AuthUtil.getAuthenticatedUserEmail;
-import static com.sophium.treeier.util.Constants.MAXIMUM_DEPTH_LIMIT_REACHED;
 import static com.sophium.treeier.util.Constants.MAXIMUM_NODES_LIMIT_REACHED;
 import static com.sophium.treeier.util.Constants.NODE_DOES_NOT_EXIST_IN_THIS_TREE;
-import static com.sophium.treeier.util.Constants.NODE_NOT_FOUND;
 import static com.sophium.treeier.util.Constants.TREE_NOT_FOUND;
-import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
 
 @Slf4j
 @Service
@@ -52,7 +71,8 @@ import static java.util.Objects.nonNull;
 public class TreeService {
 
     private static final int MAX_NODES = 10000;
-    private static final int MAX_DEPTH = 5;
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+    private static final int MAX_TREES_PAGE_SIZE = 100;
 
     private final TreeJpaRepository treeRepository;
     private final NodeService nodeService;
@@ -61,6 +81,19 @@ public class TreeService {
     private final UserService userService;
     private final TreeMapper treeMapper;
     private final TreeNodeMapper treeNodeMapper;
+    private final TreeAssembler treeAssembler;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final TreeSnapshotCache treeSnapshotCache;
+    private final NodeIdGenerator nodeIdGenerator;
+    private final TreeStatisticsService treeStatisticsService;
+    private final TreeWriteLocks treeWriteLocks;
+    private final AuthorizationContext authorizationContext;
+    private final TreeAclCache treeAclCache;
+    private final TreeLabelRepository treeLabelRepository;
+    private final NodeSearchService nodeSearchService;
+    private final TreeListingAssembler treeListingAssembler;
+    private final ForkLineageService forkLineageService;
 
     public TreeDto createTree(CreateTreeDto dto) {
 
@@ -70,14 +103,12 @@ public class TreeService {
         rootNode.setTitle(dto.getTitle());
         rootNode.setDescription(dto.getDescription());
 
-        NodeDto createdRootNode = nodeService.createNode(rootNode.getId(), rootNode);
-
         Tree tree = Tree.builder()
             .title(dto.getTitle())
             .description(dto.getDescription())
             .labels(dto.getLabels() != null ? dto.getLabels() : new HashMap<>())
-            .rootNodeId(createdRootNode.getId())
-            .nodeCount(1)
+            .rootNodeId(rootNode.getId())
+            .nodeCount(0)
             .maxDepth(0)
             .build();
 
@@ -86,6 +117,9 @@ public class TreeService {
 
         Tree savedTree = treeRepository.save(tree);
 
+        nodeService.createNode(savedTree.getId(), rootNode);
+        savedTree.setNodeCount(1);
+
         return treeMapper.toDto(savedTree);
     }
 
@@ -93,7 +127,7 @@ public class TreeService {
         Tree originalTree = treeRepository.findById(treeId)
             .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
 
-        Map<Long, Long> idMapping = copyNodeStructure(treeId, originalTree.getRootNodeId());
+        Map<Long, Long> idMapping = copyNodeStructure(originalTree.getRootNodeId());
 
         Tree forkedTree = Tree.builder()
             .title(newTitle != null ? newTitle : originalTree.getTitle() + " (Fork)")
@@ -108,20 +142,27 @@ public class TreeService {
         User treeOwner = userService.getTreeOwner(forkedTree);
         forkedTree.setOwner(treeOwner);
 
-        return treeMapper.toDto(treeRepository.save(forkedTree));
+        Tree savedFork = treeRepository.save(forkedTree);
+        treeStatisticsService.copyStatistics(treeId, savedFork.getId());
+        nodeSearchService.onNodesCreated(savedFork.getId(), idMapping.values());
+        treeRepository.addToForkCount(treeId, 1);
+        forkLineageService.invalidateAll();
+
+        treeSnapshotCache.invalidate(treeId);
+        return treeMapper.toDto(savedFork);
     }
 
     public TreeDto updateTree(Long treeId, UpdateTreeDto dto) {
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
         Tree tree = treeRepository.findById(treeId)
             .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
 
-        if (!tree.canEdit(currentUser)) {
+        if (!authorizationContext.canEdit(tree)) {
             throw new AccessDeniedException("User cannot edit this tree");
         }
 
         if (dto.getTitle() != null) {
             tree.setTitle(dto.getTitle());
+            forkLineageService.invalidateAll();
         }
         if (dto.getDescription() != null) {
             tree.setDescription(dto.getDescription());
@@ -131,20 +172,29 @@ public class TreeService {
         }
 
         Tree saved = treeRepository.save(tree);
+        treeSnapshotCache.invalidate(treeId);
         return treeMapper.toDto(saved);
     }
 
     public void deleteTree(Long treeId) {
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
         Tree tree = treeRepository.findById(treeId)
             .orElseThrow(() -> new TreeNotFoundException(treeId));
 
-        if (!tree.isOwner(currentUser)) {
+        if (!authorizationContext.isOwner(tree)) {
             throw new AccessDeniedException("Only owner can delete tree");
         }
 
-        tree.softDelete(currentUser.getName());
+        tree.softDelete(authorizationContext.getCurrentUser().getName());
         treeRepository.save(tree);
+        treeSnapshotCache.invalidate(treeId);
+        treeAclCache.invalidate(treeId);
+        nodeSearchService.onTreeDeleted(treeId);
+        if (tree.getParentTree() != null) {
+            Long parentTreeId = tree.getParentTree().getId();
+            treeRepository.addToForkCount(parentTreeId, -1);
+            treeSnapshotCache.invalidate(parentTreeId);
+        }
+        forkLineageService.invalidateAll();
     }
 
     @Transactional(readOnly = true)
@@ -152,20 +202,45 @@ public class TreeService {
         Page<Tree> trees;
 
         if (labels != null && !labels.isEmpty()) {
-            trees = treeRepository.findByLabels(labels, pageable);
+            trees = treeLabelRepository.findByLabels(labels, pageable);
         } else {
             trees = treeRepository.findAll(pageable);
         }
 
-        return trees.map(treeMapper::toDtoWithoutNodes);
+        return new PageImpl<>(treeListingAssembler.assemble(trees.getContent()), trees.getPageable(),
+            trees.getTotalElements());
+    }
+
+    /**
+     * Lists trees by (updatedAt, id) descending, continuing after {@code cursor}. Unlike offset pages, every page
+     * costs the same index range read and no count query is run.
+     */
+    @Transactional(readOnly = true)
+    public TreePageDto getRecentTrees(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_TREES_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+        List<Tree> trees;
+        if (cursor == null || cursor.isBlank()) {
+            trees = treeRepository.findMostRecentlyUpdated(limit);
+        } else {
+            TreeCursor after = TreeCursor.decode(cursor);
+            trees = treeRepository.findUpdatedBefore(after.updatedAt(), after.id(), limit);
+        }
+
+        String nextCursor = null;
+        if (trees.size() > pageSize) {
+            trees = trees.subList(0, pageSize);
+            Tree last = trees.get(pageSize - 1);
+            nextCursor = new TreeCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        return new TreePageDto(treeListingAssembler.assemble(trees), nextCursor);
     }
 
     public void shareTree(Long treeId, List<Long> userIds) {
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
         Tree tree = treeRepository.findById(treeId)
             .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
 
-        if (!tree.isOwner(currentUser)) {
+        if (!authorizationContext.isOwner(tree)) {
             throw new AccessDeniedException("Only owner can share tree");
         }
 
@@ -173,91 +248,124 @@ public class TreeService {
         tree.getEditors().addAll(editors);
 
         treeRepository.save(tree);
+        treeSnapshotCache.invalidate(treeId);
+        treeAclCache.invalidate(treeId);
     }
 
     public void removeEditor(Long treeId, Long userId) {
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
         Tree tree = treeRepository.findById(treeId)
             .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
 
-        if (!tree.isOwner(currentUser)) {
+        if (!authorizationContext.isOwner(tree)) {
             throw new AccessDeniedException("Only owner can manage editors");
         }
 
         tree.getEditors().removeIf(editor -> editor.getId().equals(userId));
         treeRepository.save(tree);
+        treeSnapshotCache.invalidate(treeId);
+        treeAclCache.invalidate(treeId);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public TreeDto getTreeWithNodes(Long treeId) {
-        Tree tree = treeRepository.findById(treeId)
-            .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
+        return treeSnapshotCache.getTreeWithNodes(treeId, () -> {
+            Tree tree = treeRepository.findById(treeId)
+                .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
 
-        List<NodeDto> nodes = loadTreeStructure(tree.getRootNodeId());
+            List<NodeDto> nodes = loadTreeStructure(tree.getRootNodeId());
 
-        return treeMapper.toDtoWithNodes(tree, nodes);
+            return treeMapper.toDtoWithNodes(tree, nodes);
+        });
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public TreeDto getTreeWithoutNodes(Long treeId) {
+        return treeSnapshotCache.getTreeWithoutNodes(treeId, () -> {
+            Tree tree = treeRepository.findById(treeId)
+                .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
+            return treeMapper.toDtoWithoutNodes(tree);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public StreamingResponseBody streamTreeNodes(Long treeId) {
         Tree tree = treeRepository.findById(treeId)
             .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
-        return treeMapper.toDtoWithoutNodes(tree);
-    }
+        Long rootNodeId = tree.getRootNodeId();
 
-    private List<NodeDto> loadTreeStructure(Long rootNodeId) {
-        NodeDto rootNode = nodeService.findById(rootNodeId);
-        loadChildrenRecursively(rootNode);
-        return List.of(rootNode);
-    }
+        TransactionTemplate streamingTransaction = new TransactionTemplate(transactionManager);
+        streamingTransaction.setReadOnly(true);
 
-    private void loadChildrenRecursively(NodeDto parent) {
-        List<NodeEntity> directChildren = nodeRepository.findDirectChildren(parent.getId());
+        return outputStream -> streamingTransaction.executeWithoutResult(status -> writeNodes(rootNodeId, outputStream));
+    }
 
-        List<NodeDto> children = directChildren.stream()
-            .map(child -> {
-                NodeDto childDto = treeNodeMapper.toDto(child);
-                loadChildrenRecursively(childDto);
-                return childDto;
-            })
-            .toList();
+    private void writeNodes(Long rootNodeId, OutputStream outputStream) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (Stream<NodeRowDto> nodes = nodeRepository.streamSubtreeNodes(rootNodeId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            int written = 0;
+            for (NodeRowDto node : (Iterable<NodeRowDto>) nodes::iterator) {
+                writer.writeValue(generator, node);
+                generator.writeRaw('\n');
+                if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        parent.setChildren(children);
+    private List<NodeDto> loadTreeStructure(Long rootNodeId) {
+        return treeAssembler.assemble(nodeRepository.findSubtreeNodes(rootNodeId));
     }
 
     public TreeDto updateLabels(Long treeId, Map<String, String> labels) {
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
         Tree tree = treeRepository.findById(treeId)
             .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
 
-        if (!tree.canEdit(currentUser)) {
+        if (!authorizationContext.canEdit(tree)) {
             throw new AccessDeniedException("User cannot edit this tree");
         }
 
         tree.getLabels().putAll(labels);
         Tree saved = treeRepository.save(tree);
+        treeSnapshotCache.invalidate(treeId);
         return treeMapper.toDto(saved);
     }
 
-    @Transactional(readOnly = true)
-    public TreeStatisticsDto getTreeStatistics(Long treeId) {
-        Tree tree = treeRepository.findById(treeId)
-            .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
-
-        Map<Integer, Integer> nodesPerLevel = nodeRepository.countNodesPerLevel(tree.getRootNodeId());
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public ForkLineageDto getForkLineage(Long treeId) {
+        return forkLineageService.getLineage(treeId);
+    }
 
-        return new TreeStatisticsDto(
-            treeId,
-            tree.getNodeCount(),
-            tree.getMaxDepth(),
-            tree.getForks().size(),
-            tree.getUpdatedAt(),
-            nodesPerLevel
-        );
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public TreeStatisticsDto getTreeStatistics(Long treeId) {
+        return treeSnapshotCache.getStatistics(treeId, () -> {
+            Tree tree = treeRepository.findById(treeId)
+                .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
+
+            Map<Integer, Integer> nodesPerLevel = treeStatisticsService.getNodesPerLevel(treeId);
+
+            return new TreeStatisticsDto(
+                treeId,
+                tree.getNodeCount(),
+                tree.getMaxDepth(),
+                tree.getForkCount(),
+                tree.getUpdatedAt(),
+                nodesPerLevel
+            );
+        });
     }
 
     public NodeDto addNodeToTree(Long treeId, CreateTreeNodeDto createNodeDto) {
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
+        treeWriteLocks.lockUntilCompletion(treeId);
+
         Optional<Tree> treeOpt = treeRepository.findById(treeId);
 
         if (treeOpt.isEmpty()) {
@@ -266,7 +374,7 @@ public class TreeService {
 
         Tree tree = treeOpt.get();
 
-        if (!tree.canEdit(currentUser)) {
+        if (!authorizationContext.canEdit(tree)) {
             throw new AccessDeniedException("User cannot edit this tree");
         }
 
@@ -274,23 +382,41 @@ public class TreeService {
             throw new NodeLimitException(MAXIMUM_NODES_LIMIT_REACHED);
         }
 
-        if (nonNull(createNodeDto.getParentId())) {
-            NodeDto parentNode = nodeService.findById(createNodeDto.getParentId());
-            if (isNull(parentNode)) {
-                throw new NotFoundException(String.format(NODE_NOT_FOUND, createNodeDto.getParentId()));
-            } else if (parentNode.getDepth() >= MAX_DEPTH - 1) {
-                throw new DepthLimitException(MAXIMUM_DEPTH_LIMIT_REACHED);
-            }
-        }
-
         NodeDto newNode = populateNewTreeNode(tree, createNodeDto);
         NodeDto created = nodeService.createNode(treeId, newNode);
 
-        updateTreeStatistics(tree);
-
         return treeNodeMapper.nodeDtoToTreeNodeDto(created);
     }
 
+    public List<NodeDto> addSubtreeToTree(Long treeId, CreateSubtreeDto createSubtreeDto) {
+        treeWriteLocks.lockUntilCompletion(treeId);
+
+        Tree tree = treeRepository.findById(treeId)
+            .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
+
+        if (!authorizationContext.canEdit(tree)) {
+            throw new AccessDeniedException("User cannot edit this tree");
+        }
+
+        if (tree.getNodeCount() + countSubtreeNodes(createSubtreeDto.getNodes()) > MAX_NODES) {
+            throw new NodeLimitException(MAXIMUM_NODES_LIMIT_REACHED);
+        }
+
+        Long parentId = createSubtreeDto.getParentId() != null ? createSubtreeDto.getParentId() : tree.getRootNodeId();
+        return nodeService.createSubtree(treeId, tree.getRootNodeId(), parentId, createSubtreeDto.getNodes());
+    }
+
+    private int countSubtreeNodes(List<CreateSubtreeNodeDto> nodes) {
+        if (nodes == null) {
+            return 0;
+        }
+        int count = nodes.size();
+        for (CreateSubtreeNodeDto node : nodes) {
+            count += countSubtreeNodes(node.getChildren());
+        }
+        return count;
+    }
+
     private @NonNull NodeDto populateNewTreeNode(Tree tree, CreateTreeNodeDto createNodeDto) {
         NodeDto newNode = new NodeDto();
         newNode.setId(generateNodeId());
@@ -305,11 +431,12 @@ public class TreeService {
     }
 
     public void moveNodeWithinTree(Long treeId, Long nodeId, Long newParentId) {
-        User currentUser = userService.getUserByEmail(getAuthenticatedUserEmail());
+        treeWriteLocks.lockUntilCompletion(treeId);
+
         Tree tree = treeRepository.findById(treeId)
             .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
 
-        if (!tree.canEdit(currentUser)) {
+        if (!authorizationContext.canEdit(tree)) {
             throw new AccessDeniedException("User cannot edit this tree");
         }
 
@@ -318,66 +445,22 @@ public class TreeService {
             throw new InvalidNodeException(String.format(NODE_DOES_NOT_EXIST_IN_THIS_TREE, nodeId));
         }
 
-        nodeService.moveNode(nodeId, newParentId, treeId);
-        updateTreeStatistics(tree);
+        nodeService.moveNode(treeId, nodeId, newParentId);
     }
 
-    private void updateTreeStatistics(Tree tree) {
-        Integer nodeCount = nodeRepository.countDescendants(tree.getRootNodeId()).intValue() + 1;
-        Integer maxDepth = nodeRepository.findMaxDepthInTree(tree.getRootNodeId());
-
-        tree.setNodeCount(nodeCount);
-        tree.setMaxDepth(maxDepth != null ? maxDepth : 0);
-        treeRepository.save(tree);
-    }
-
-    private Map<Long, Long> copyNodeStructure(Long treeId, Long rootNodeId) {
-        Map<Long, Long> oldToNewIdMapping = new HashMap<>();
-
-        NodeDto rootNode = nodeService.findById(rootNodeId);
-        List<NodeDto> allDescendants = nodeService.findAllNodesFromRoot(rootNodeId);
-
-        NodeDto newRoot = new NodeDto();
-        newRoot.setId(generateNodeId());
-        newRoot.setRootId(newRoot.getId());
-        newRoot.setTitle(rootNode.getTitle());
-        newRoot.setDepth(0);
+    private Map<Long, Long> copyNodeStructure(Long rootNodeId) {
+        List<Long> nodeIds = nodeRepository.findSubtreeNodeIds(rootNodeId);
 
-        NodeDto createdRoot = nodeService.createNode(treeId, newRoot);
-        oldToNewIdMapping.put(rootNodeId, createdRoot.getId());
-
-        allDescendants.sort(Comparator.comparing(NodeDto::getDepth));
-
-        for (NodeDto descendant : allDescendants) {
-            NodeDto newNode = new NodeDto();
-            newNode.setId(generateNodeId());
-
-            Long newParentId = oldToNewIdMapping.get(descendant.getParentId());
-            newNode.setParentId(newParentId);
-            newNode.setRootId(createdRoot.getId());
-            newNode.setDescription(rootNode.getDescription());
-
-            copyNodeDetails(descendant.getId(), newNode);
-
-            NodeDto createdNode = nodeService.createNode(treeId, newNode);
-            oldToNewIdMapping.put(descendant.getId(), createdNode.getId());
+        Map<Long, Long> oldToNewIdMapping = new HashMap<>(nodeIds.size() * 2);
+        for (Long nodeId : nodeIds) {
+            oldToNewIdMapping.put(nodeId, generateNodeId());
         }
 
+        nodeRepository.copySubtree(rootNodeId, oldToNewIdMapping);
         return oldToNewIdMapping;
     }
 
-    private void copyNodeDetails(Long sourceNodeId, NodeDto targetNode) {
-        NodeEntity sourceEntity = nodeRepository.findNodeEntityById(sourceNodeId);
-        if (sourceEntity != null) {
-            targetNode.setTitle(sourceEntity.getTitle());
-            targetNode.setDescription(sourceEntity.getDescription());
-            targetNode.setNodeType(sourceEntity.getNodeType());
-            targetNode.setFlagValue(sourceEntity.getFlagValue());
-            targetNode.setLinkValue(sourceEntity.getLinkValue());
-        }
-    }
-
     private Long generateNodeId() {
-        return System.currentTimeMillis() % Long.MAX_VALUE;
+        return nodeIdGenerator.nextId();
     }
 }
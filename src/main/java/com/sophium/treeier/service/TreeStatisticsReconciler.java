@@ -0,0 +1,49 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.repository.TreeJpaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Periodically recounts every tree to repair drift in the incrementally maintained statistics.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TreeStatisticsReconciler {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final TreeJpaRepository treeRepository;
+    private final TreeStatisticsService treeStatisticsService;
+
+    @Scheduled(initialDelayString = "${treeier.statistics.reconciliation.initial-delay:PT1M}",
+        fixedDelayString = "${treeier.statistics.reconciliation.interval:PT15M}")
+    public void reconcileAll() {
+        int repaired = 0;
+        long afterId = 0L;
+        List<Long> treeIds;
+
+        while (!(treeIds = treeRepository.findIdsAfter(afterId, PageRequest.ofSize(BATCH_SIZE))).isEmpty()) {
+            for (Long treeId : treeIds) {
+                try {
+                    if (treeStatisticsService.reconcile(treeId)) {
+                        repaired++;
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Failed to reconcile statistics of tree {}", treeId, e);
+                }
+            }
+            afterId = treeIds.get(treeIds.size() - 1);
+        }
+
+        if (repaired > 0) {
+            log.info("Repaired statistics of {} trees", repaired);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.entity.Tree;
+import com.sophium.treeier.entity.TreeLevelCount;
+import com.sophium.treeier.repository.NodeRepository;
+import com.sophium.treeier.repository.TreeJpaRepository;
+import com.sophium.treeier.repository.TreeLevelCountRepository;
+import com.sophium.treeier.service.cache.TreeSnapshotCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps {@code Tree.nodeCount}, {@code Tree.maxDepth} and the per-depth node histogram up to date with delta
+ * updates. The tree row is always updated before the histogram rows, so concurrent writers and the reconciliation
+ * job lock in the same order.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class TreeStatisticsService {
+
+    private final TreeJpaRepository treeRepository;
+    private final TreeLevelCountRepository treeLevelCountRepository;
+    private final NodeRepository nodeRepository;
+    private final TreeSnapshotCache treeSnapshotCache;
+
+    public void recordNodesAdded(Long treeId, Map<Integer, Integer> countsPerDepth) {
+        applyDeltas(treeId, countsPerDepth);
+    }
+
+    public void recordNodesRemoved(Long treeId, Map<Integer, Integer> countsPerDepth) {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        countsPerDepth.forEach((depth, count) -> deltas.put(depth, -count));
+        applyDeltas(treeId, deltas);
+    }
+
+    /**
+     * @param deltas signed node count changes per absolute depth
+     */
+    public void recordLevelChanges(Long treeId, Map<Integer, Integer> deltas) {
+        applyDeltas(treeId, deltas);
+    }
+
+    /**
+     * @param relativeCounts node counts of the moved subtree per depth relative to the moved node
+     */
+    public void recordSubtreeMoved(Long treeId, Map<Integer, Integer> relativeCounts, int oldDepth, int newDepth) {
+        if (oldDepth == newDepth) {
+            return;
+        }
+        Map<Integer, Integer> deltas = new HashMap<>();
+        relativeCounts.forEach((relativeDepth, count) -> {
+            deltas.merge(oldDepth + relativeDepth, -count, Integer::sum);
+            deltas.merge(newDepth + relativeDepth, count, Integer::sum);
+        });
+        applyDeltas(treeId, deltas);
+    }
+
+    public void copyStatistics(Long sourceTreeId, Long targetTreeId) {
+        treeLevelCountRepository.copyLevels(sourceTreeId, targetTreeId);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Integer, Integer> getNodesPerLevel(Long treeId) {
+        Map<Integer, Integer> nodesPerLevel = new LinkedHashMap<>();
+        for (TreeLevelCount level : treeLevelCountRepository.findByTreeIdOrderByDepth(treeId)) {
+            if (level.getNodeCount() > 0) {
+                nodesPerLevel.put(level.getDepth(), level.getNodeCount());
+            }
+        }
+        return nodesPerLevel;
+    }
+
+    /**
+     * Recounts the tree from the closure table and overwrites the maintained statistics if they drifted.
+     *
+     * @return whether the stored statistics had to be repaired
+     */
+    public boolean reconcile(Long treeId) {
+        Tree tree = treeRepository.findByIdForUpdate(treeId).orElse(null);
+        if (tree == null) {
+            return false;
+        }
+
+        Map<Integer, Integer> actual = nodeRepository.countNodesPerLevel(tree.getRootNodeId());
+        int nodeCount = actual.values().stream().mapToInt(Integer::intValue).sum();
+        int maxDepth = actual.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+
+        if (actual.equals(getNodesPerLevel(treeId))
+            && Objects.equals(tree.getNodeCount(), nodeCount)
+            && Objects.equals(tree.getMaxDepth(), maxDepth)) {
+            return false;
+        }
+
+        log.warn("Repairing statistics of tree {}: nodeCount {} -> {}, maxDepth {} -> {}",
+            treeId, tree.getNodeCount(), nodeCount, tree.getMaxDepth(), maxDepth);
+
+        treeLevelCountRepository.deleteByTreeId(treeId);
+        actual.forEach((depth, count) -> treeLevelCountRepository.addToLevel(treeId, depth, count));
+        treeRepository.setStatistics(treeId, nodeCount, maxDepth);
+        treeSnapshotCache.invalidate(treeId);
+        return true;
+    }
+
+    private void applyDeltas(Long treeId, Map<Integer, Integer> deltas) {
+        int nodeCountDelta = deltas.values().stream().mapToInt(Integer::intValue).sum();
+
+        treeRepository.addToNodeCount(treeId, nodeCountDelta);
+        if (!treeLevelCountRepository.existsByTreeId(treeId)) {
+            // a delta on a missing histogram would leave a partial one; the closure table already includes the change
+            treeLevelCountRepository.seedLevels(treeId);
+            treeRepository.refreshNodeCount(treeId);
+            treeRepository.refreshMaxDepth(treeId);
+            return;
+        }
+        deltas.forEach((depth, delta) -> {
+            if (delta != 0) {
+                treeLevelCountRepository.addToLevel(treeId, depth, delta);
+            }
+        });
+        treeRepository.refreshMaxDepth(treeId);
+    }
+}
@@ -0,0 +1,143 @@
+package com.sophium.treeier.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Mutable in-memory outline of one tree (parent, depth and title of every node), used to validate a batch of
+ * structural operations before any of them reaches the database.
+ */
+class TreeView {
+
+    private final Long rootId;
+    private final Map<Long, Long> parents;
+    private final Map<Long, Integer> depths;
+    private final Map<Long, String> titles;
+    private final Map<Long, List<Long>> children;
+
+    /**
+     * @param rows {@code (id, parentId, depth, title)} of every node in the tree
+     */
+    TreeView(Long rootId, List<Object[]> rows) {
+        this.rootId = rootId;
+        this.parents = new HashMap<>(rows.size() * 2);
+        this.depths = new HashMap<>(rows.size() * 2);
+        this.titles = new HashMap<>(rows.size() * 2);
+        this.children = new HashMap<>(rows.size() * 2);
+
+        for (Object[] row : rows) {
+            Long id = ((Number) row[0]).longValue();
+            Long parentId = row[1] != null ? ((Number) row[1]).longValue() : null;
+            parents.put(id, parentId);
+            depths.put(id, row[2] != null ? ((Number) row[2]).intValue() : 0);
+            titles.put(id, (String) row[3]);
+            if (parentId != null) {
+                children.computeIfAbsent(parentId, key -> new ArrayList<>()).add(id);
+            }
+        }
+    }
+
+    boolean contains(Long nodeId) {
+        return parents.containsKey(nodeId);
+    }
+
+    boolean isRoot(Long nodeId) {
+        return Objects.equals(rootId, nodeId);
+    }
+
+    Long parentOf(Long nodeId) {
+        return parents.get(nodeId);
+    }
+
+    int depthOf(Long nodeId) {
+        return depths.get(nodeId);
+    }
+
+    String titleOf(Long nodeId) {
+        return titles.get(nodeId);
+    }
+
+    /**
+     * Whether {@code nodeId} is {@code ancestorId} or one of its descendants.
+     */
+    boolean isInSubtree(Long nodeId, Long ancestorId) {
+        for (Long current = nodeId; current != null; current = parents.get(current)) {
+            if (current.equals(ancestorId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Depth of the deepest descendant relative to {@code nodeId}.
+     */
+    int subtreeHeight(Long nodeId) {
+        int base = depths.get(nodeId);
+        int height = 0;
+        for (Long id : subtree(nodeId)) {
+            height = Math.max(height, depths.get(id) - base);
+        }
+        return height;
+    }
+
+    void move(Long nodeId, Long newParentId) {
+        int delta = depths.get(newParentId) + 1 - depths.get(nodeId);
+        detach(nodeId);
+        parents.put(nodeId, newParentId);
+        children.computeIfAbsent(newParentId, key -> new ArrayList<>()).add(nodeId);
+        if (delta != 0) {
+            for (Long id : subtree(nodeId)) {
+                depths.merge(id, delta, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * @return ids of the removed nodes, {@code nodeId} first
+     */
+    List<Long> removeSubtree(Long nodeId) {
+        List<Long> removed = subtree(nodeId);
+        detach(nodeId);
+        for (Long id : removed) {
+            parents.remove(id);
+            depths.remove(id);
+            titles.remove(id);
+            children.remove(id);
+        }
+        return removed;
+    }
+
+    Map<Integer, Integer> countNodesPerDepth() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        depths.values().forEach(depth -> counts.merge(depth, 1, Integer::sum));
+        return counts;
+    }
+
+    private void detach(Long nodeId) {
+        Long parentId = parents.get(nodeId);
+        if (parentId != null) {
+            List<Long> siblings = children.get(parentId);
+            if (siblings != null) {
+                siblings.remove(nodeId);
+            }
+        }
+    }
+
+    private List<Long> subtree(Long nodeId) {
+        List<Long> result = new ArrayList<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.push(nodeId);
+        while (!pending.isEmpty()) {
+            Long id = pending.pop();
+            result.add(id);
+            children.getOrDefault(id, List.of()).forEach(pending::push);
+        }
+        return result;
+    }
+}
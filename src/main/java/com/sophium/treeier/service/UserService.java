@@ -5,6 +5,8 @@ import com.sophium.treeier.entity.Tree;
 import com.sophium.treeier.entity.User;
 import com.sophium.treeier.exception.NotFoundException;
 import com.sophium.treeier.repository.UserRepository;
+import com.sophium.treeier.service.search.UserSearchService;
+import com.sophium.treeier.service.security.AuthorizationContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +25,8 @@ import static com.sophium.treeier.util.AuthUtil.getAuthenticatedUserName;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final AuthorizationContext authorizationContext;
+    private final UserSearchService userSearchService;
 
     public List<UserDto> getAllUsers() {
         return userRepository.findAll().stream()
@@ -30,13 +34,8 @@ public class UserService {
             .toList();
     }
 
-    public List<UserDto> searchUsers(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return getAllUsers();
-        }
-        return userRepository.searchByEmailOrName(query.trim()).stream()
-            .map(this::toDto)
-            .toList();
+    public List<UserDto> searchUsers(String query, int page, int size) {
+        return userSearchService.search(query, page, size);
     }
 
     public User getUserByEmail(String email) {
@@ -52,17 +51,25 @@ public class UserService {
             .build();
     }
 
+    public User getCurrentUser() {
+        return authorizationContext.getCurrentUser();
+    }
+
+    @Transactional
     public User getTreeOwner(Tree tree) {
-        String userId = getAuthenticatedUserEmail();
-        String userName = getAuthenticatedUserName();
-        Optional<User> existingUserOpt = userRepository.findByEmail(userId);
+        Optional<User> existingUserOpt = authorizationContext.findCurrentUser();
+        if (existingUserOpt.isPresent()) {
+            return existingUserOpt.get();
+        }
 
-        return existingUserOpt
-            .orElseGet(() -> userRepository.save(User.builder()
-                .email(userId)
-                .name(userName)
-                .createdAt(LocalDateTime.now())
-                .editableTrees(Set.of(tree))
-                .build()));
+        User created = userRepository.save(User.builder()
+            .email(getAuthenticatedUserEmail())
+            .name(getAuthenticatedUserName())
+            .createdAt(LocalDateTime.now())
+            .editableTrees(Set.of(tree))
+            .build());
+        authorizationContext.setCurrentUser(created);
+        userSearchService.onUserCreated(created);
+        return created;
     }
 }
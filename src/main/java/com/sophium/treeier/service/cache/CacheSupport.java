@@ -0,0 +1,52 @@
+package com.sophium.treeier.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Building and invalidation shared by the in-process Caffeine caches.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CacheSupport {
+
+    public static <K, V> Cache<K, V> sizeBounded(String name, long maxSize, Duration expireAfterWrite,
+                                                 MeterRegistry meterRegistry) {
+        return monitored(name, Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfterWrite), meterRegistry);
+    }
+
+    /**
+     * Builds the cache with statistics recorded and exposed as cache metrics under {@code name}.
+     */
+    public static <K, V> Cache<K, V> monitored(String name, Caffeine<? super K, ? super V> builder,
+                                               MeterRegistry meterRegistry) {
+        Cache<K, V> cache = builder.recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+
+    /**
+     * Runs the eviction now and once more after the surrounding transaction completes, so a reader that loaded
+     * pre-commit state in between cannot leave a stale entry behind.
+     */
+    public static void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.sophium.treeier.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.sophium.treeier.config.cache.properties.NodePathCacheProperties;
+import com.sophium.treeier.dto.NodePathItemDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Per-node cache of root-to-node paths. A path holds at most {@code MAX_DEPTH} entries, so the cache is small per
+ * entry. The paths passing through a node are exactly those of its subtree, so a change to a node evicts them by
+ * key.
+ */
+@Component
+public class NodePathCache {
+
+    public static final String CACHE_NAME = "nodePaths";
+
+    private final Cache<Long, List<NodePathItemDto>> cache;
+
+    public NodePathCache(NodePathCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = CacheSupport.sizeBounded(CACHE_NAME, properties.getMaxSize(), properties.getExpireAfterWrite(),
+            meterRegistry);
+    }
+
+    /**
+     * Returns the cached paths of the nodes, loading all missing ones with a single call to {@code loader}. Nodes
+     * that do not exist are left out of the result.
+     */
+    public Map<Long, List<NodePathItemDto>> getAll(Collection<Long> nodeIds,
+                                                   Function<Set<? extends Long>, Map<Long, List<NodePathItemDto>>> loader) {
+        return cache.getAll(nodeIds, loader);
+    }
+
+    public void invalidate(Collection<Long> nodeIds) {
+        List<Long> keys = List.copyOf(nodeIds);
+        CacheSupport.evictNowAndAfterCompletion(() -> cache.invalidateAll(keys));
+    }
+}
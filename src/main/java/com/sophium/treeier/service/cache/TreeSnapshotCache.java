@@ -0,0 +1,68 @@
+package com.sophium.treeier.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sophium.treeier.config.cache.properties.TreeSnapshotCacheProperties;
+import com.sophium.treeier.dto.TreeDto;
+import com.sophium.treeier.dto.TreeStatisticsDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-tree cache of assembled trees and their statistics, weighed by node count.
+ */
+@Component
+public class TreeSnapshotCache {
+
+    public static final String CACHE_NAME = "treeSnapshots";
+
+    private final Cache<SnapshotKey, Object> cache;
+
+    public TreeSnapshotCache(TreeSnapshotCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = CacheSupport.monitored(CACHE_NAME, Caffeine.newBuilder()
+            .maximumWeight(properties.getMaxWeight())
+            .weigher(TreeSnapshotCache::weigh)
+            .expireAfterWrite(properties.getExpireAfterWrite()), meterRegistry);
+    }
+
+    public TreeDto getTreeWithNodes(Long treeId, Supplier<TreeDto> loader) {
+        return (TreeDto) cache.get(new SnapshotKey(treeId, SnapshotType.TREE_WITH_NODES), key -> loader.get());
+    }
+
+    public TreeDto getTreeWithoutNodes(Long treeId, Supplier<TreeDto> loader) {
+        return (TreeDto) cache.get(new SnapshotKey(treeId, SnapshotType.TREE), key -> loader.get());
+    }
+
+    public TreeStatisticsDto getStatistics(Long treeId, Supplier<TreeStatisticsDto> loader) {
+        return (TreeStatisticsDto) cache.get(new SnapshotKey(treeId, SnapshotType.STATISTICS), key -> loader.get());
+    }
+
+    public void invalidate(Long treeId) {
+        if (treeId == null) {
+            return;
+        }
+        CacheSupport.evictNowAndAfterCompletion(() -> evict(treeId));
+    }
+
+    private void evict(Long treeId) {
+        for (SnapshotType type : SnapshotType.values()) {
+            cache.invalidate(new SnapshotKey(treeId, type));
+        }
+    }
+
+    private static int weigh(SnapshotKey key, Object value) {
+        if (value instanceof TreeDto tree && tree.getNodes() != null && tree.getNodeCount() != null) {
+            return Math.max(1, tree.getNodeCount());
+        }
+        return 1;
+    }
+
+    private enum SnapshotType {
+        TREE_WITH_NODES, TREE, STATISTICS
+    }
+
+    private record SnapshotKey(Long treeId, SnapshotType type) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.sophium.treeier.service.changelog;
+
+import com.sophium.treeier.config.changelog.properties.ChangelogProperties;
+import com.sophium.treeier.entity.ChangelogEntry;
+import com.sophium.treeier.repository.ChangelogBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes changelog entries with multi-row inserts in the caller's transaction, so an entry is stored exactly when
+ * the change that produced it is.
+ */
+@Component
+public class ChangelogWriter {
+
+    private final ChangelogBatchRepository changelogBatchRepository;
+    private final int batchSize;
+
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+
+    public ChangelogWriter(ChangelogBatchRepository changelogBatchRepository,
+                           ChangelogProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.changelogBatchRepository = changelogBatchRepository;
+        this.batchSize = properties.getBatchSize();
+
+        this.writtenCounter = Counter.builder("treeier.changelog.written")
+            .description("Changelog entries written to the database")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("treeier.changelog.failed")
+            .description("Changelog entries whose write attempt failed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Writes the entries, {@code batchSize} rows per statement.
+     */
+    public void writeAll(List<ChangelogEntry> entries) {
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<ChangelogEntry> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            try {
+                changelogBatchRepository.insertAll(batch);
+                writtenCounter.increment(batch.size());
+            } catch (DataAccessException e) {
+                failedCounter.increment(batch.size());
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.sophium.treeier.service.concurrency;
+
+import com.sophium.treeier.config.concurrency.properties.TreeLockProperties;
+import com.sophium.treeier.exception.TreeBusyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.sophium.treeier.util.Constants.TREE_IS_BUSY;
+
+/**
+ * Striped per-tree write locks that serialize structural edits of the same tree inside this instance.
+ * <p>
+ * A lock is held until the surrounding transaction completes, so the next writer only reads the tree after the
+ * previous writer's node count is committed. Callers must take the lock before their first read in the transaction.
+ */
+@Component
+public class TreeWriteLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long acquireTimeoutMillis;
+
+    public TreeWriteLocks(TreeLockProperties properties) {
+        int size = Integer.highestOneBit(Math.max(1, properties.getStripes() - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.acquireTimeoutMillis = properties.getAcquireTimeout().toMillis();
+    }
+
+    public void lockUntilCompletion(Long treeId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Tree write locks can only be taken inside a transaction");
+        }
+
+        ReentrantLock lock = stripeFor(treeId);
+        try {
+            if (!lock.tryLock(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new TreeBusyException(String.format(TREE_IS_BUSY, treeId));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TreeBusyException(String.format(TREE_IS_BUSY, treeId));
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    ReentrantLock stripeFor(Long treeId) {
+        int hash = Long.hashCode(treeId);
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
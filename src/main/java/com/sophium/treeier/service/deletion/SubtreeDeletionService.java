@@ -0,0 +1,83 @@
+package com.sophium.treeier.service.deletion;
+
+import com.sophium.treeier.config.deletion.properties.NodeDeletionProperties;
+import com.sophium.treeier.entity.SubtreePurge;
+import com.sophium.treeier.repository.NodeRepository;
+import com.sophium.treeier.repository.SubtreePurgeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes subtrees in bounded chunks. Subtrees at or above the configured threshold are only detached inside the
+ * caller's transaction and removed afterward by {@link #purge()}, one chunk per transaction, so the tree is not
+ * kept locked for the whole delete.
+ */
+@Slf4j
+@Service
+public class SubtreeDeletionService {
+
+    private static final int PURGES_PER_RUN = 10;
+
+    private final NodeRepository nodeRepository;
+    private final SubtreePurgeRepository subtreePurgeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int asyncPurgeThreshold;
+
+    public SubtreeDeletionService(NodeRepository nodeRepository,
+                                  SubtreePurgeRepository subtreePurgeRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  NodeDeletionProperties properties) {
+        this.nodeRepository = nodeRepository;
+        this.subtreePurgeRepository = subtreePurgeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = properties.getChunkSize();
+        this.asyncPurgeThreshold = properties.getAsyncPurgeThreshold();
+    }
+
+    /**
+     * Removes the subtree of {@code nodeId} from the tree, either deleting it right away or detaching it for the
+     * background purge. Returns the ids of the removed nodes.
+     */
+    public List<Long> delete(Long treeId, Long nodeId, int subtreeSize) {
+        if (asyncPurgeThreshold <= 0 || subtreeSize < asyncPurgeThreshold) {
+            return nodeRepository.deleteNodeAndDescendants(nodeId, chunkSize);
+        }
+
+        List<Long> detachedNodes = nodeRepository.detachSubtree(nodeId);
+        subtreePurgeRepository.save(SubtreePurge.builder()
+            .nodeId(nodeId)
+            .treeId(treeId)
+            .createdAt(Instant.now())
+            .build());
+        log.info("Detached {} nodes under node {} of tree {} for background purge", detachedNodes.size(), nodeId, treeId);
+        return detachedNodes;
+    }
+
+    /**
+     * Deletes detached subtrees chunk by chunk. Chunks are idempotent, so a purge interrupted midway simply
+     * continues on the next run.
+     */
+    @Scheduled(fixedDelayString = "${treeier.node-deletion.purge-interval:PT1S}")
+    public void purge() {
+        for (SubtreePurge pending : subtreePurgeRepository.findAllByOrderByIdAsc(Limit.of(PURGES_PER_RUN))) {
+            int purged = 0;
+            List<Long> chunk;
+            do {
+                chunk = transactionTemplate.execute(status ->
+                    nodeRepository.deleteSubtreeChunk(pending.getNodeId(), chunkSize));
+                purged += chunk.size();
+            } while (chunk.size() == chunkSize);
+
+            subtreePurgeRepository.deleteById(pending.getId());
+            log.info("Purged {} nodes under detached node {} of tree {}", purged, pending.getNodeId(), pending.getTreeId());
+        }
+    }
+}
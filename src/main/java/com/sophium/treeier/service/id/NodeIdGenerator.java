@@ -0,0 +1,6 @@
+package com.sophium.treeier.service.id;
+
+public interface NodeIdGenerator {
+
+    long nextId();
+}
@@ -0,0 +1,72 @@
+package com.sophium.treeier.service.lineage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.sophium.treeier.config.cache.properties.ForkLineageCacheProperties;
+import com.sophium.treeier.dto.ForkLineageDto;
+import com.sophium.treeier.dto.ForkLineageTreeDto;
+import com.sophium.treeier.exception.NotFoundException;
+import com.sophium.treeier.repository.TreeJpaRepository;
+import com.sophium.treeier.service.cache.CacheSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sophium.treeier.util.Constants.TREE_NOT_FOUND;
+
+/**
+ * Fork ancestry of trees, read with one recursive CTE over {@code trees.parent_tree_id} per direction and cached
+ * per tree. Any fork, delete or rename can change the lineage of many trees, so the whole cache is dropped on
+ * change, which is cheap as forks are rare compared to lineage reads.
+ */
+@Service
+public class ForkLineageService {
+
+    public static final String CACHE_NAME = "forkLineages";
+
+    // Guards the recursion against a parent_tree_id cycle introduced by hand
+    private static final int MAX_GENERATIONS = 100;
+
+    private final TreeJpaRepository treeRepository;
+    private final Cache<Long, ForkLineageDto> cache;
+
+    public ForkLineageService(TreeJpaRepository treeRepository,
+                              ForkLineageCacheProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.treeRepository = treeRepository;
+        this.cache = CacheSupport.sizeBounded(CACHE_NAME, properties.getMaxSize(), properties.getExpireAfterWrite(),
+            meterRegistry);
+    }
+
+    public ForkLineageDto getLineage(Long treeId) {
+        return cache.get(treeId, this::load);
+    }
+
+    public void invalidateAll() {
+        CacheSupport.evictNowAndAfterCompletion(cache::invalidateAll);
+    }
+
+    private ForkLineageDto load(Long treeId) {
+        if (!treeRepository.existsById(treeId)) {
+            throw new NotFoundException(String.format(TREE_NOT_FOUND, treeId));
+        }
+        return new ForkLineageDto(treeId,
+            toDtos(treeRepository.findForkAncestors(treeId, MAX_GENERATIONS)),
+            toDtos(treeRepository.findForkDescendants(treeId, MAX_GENERATIONS)));
+    }
+
+    private static List<ForkLineageTreeDto> toDtos(List<Object[]> rows) {
+        List<ForkLineageTreeDto> trees = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            trees.add(new ForkLineageTreeDto(
+                ((Number) row[0]).longValue(),
+                row[1] != null ? ((Number) row[1]).longValue() : null,
+                (String) row[2],
+                ((Number) row[3]).intValue(),
+                row[4] != null ? ((Number) row[4]).intValue() : 0,
+                ((Number) row[5]).intValue() != 0));
+        }
+        return trees;
+    }
+}
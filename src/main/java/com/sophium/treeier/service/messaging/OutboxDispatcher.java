@@ -0,0 +1,200 @@
+package com.sophium.treeier.service.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophium.treeier.config.messaging.properties.OutboxProperties;
+import com.sophium.treeier.dto.TreeUpdateBatch;
+import com.sophium.treeier.dto.TreeUpdateNotification;
+import com.sophium.treeier.entity.OutboxEvent;
+import com.sophium.treeier.repository.OutboxEventRepository;
+import com.sophium.treeier.service.ChangelogService;
+import com.sophium.treeier.service.search.NodeSearchService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the notification outbox in batches: publishes each event to its tree topic, then records the changelog
+ * entries, appends the touched nodes to the search change feed and deletes the outbox rows in one transaction.
+ * Delivery is at-least-once, a batch whose transaction fails after publishing is published again on the next poll.
+ * <p>
+ * An event that cannot be read, published or recorded is parked: it stays in the outbox with {@code failed_at}
+ * set and is skipped by later polls, so the rest of its batch still commits.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private static final String BATCH_EVENTS_FIELD = "events";
+    private static final Duration COUNT_REFRESH_INTERVAL = Duration.ofSeconds(15);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TreeNotificationService treeNotificationService;
+    private final ChangelogService changelogService;
+    private final NodeSearchService nodeSearchService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final Timer lagTimer;
+    private final Counter dispatchedCounter;
+    private final Counter failedCounter;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+    private volatile Instant countedAt = Instant.EPOCH;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            TreeNotificationService treeNotificationService,
+                            ChangelogService changelogService,
+                            NodeSearchService nodeSearchService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            OutboxProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.treeNotificationService = treeNotificationService;
+        this.changelogService = changelogService;
+        this.nodeSearchService = nodeSearchService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = properties.getBatchSize();
+
+        this.lagTimer = Timer.builder("treeier.outbox.lag")
+            .description("Time between an event being written to the outbox and its dispatch")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.dispatchedCounter = Counter.builder("treeier.outbox.dispatched")
+            .description("Outbox events published and recorded")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("treeier.outbox.failed")
+            .description("Outbox events parked because they could not be read, published or recorded")
+            .register(meterRegistry);
+        // counted by the dispatcher every COUNT_REFRESH_INTERVAL rather than on every scrape
+        Gauge.builder("treeier.outbox.pending", pending, AtomicLong::get)
+            .description("Events waiting in the outbox")
+            .register(meterRegistry);
+        Gauge.builder("treeier.outbox.parked", parked, AtomicLong::get)
+            .description("Events kept in the outbox after failing to dispatch")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${treeier.outbox.poll-interval:PT0.1S}")
+    public void drain() {
+        Integer dispatched;
+        do {
+            dispatched = transactionTemplate.execute(status -> dispatchBatch());
+        } while (dispatched != null && dispatched == batchSize);
+        refreshCounts();
+    }
+
+    private int dispatchBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        List<DecodedEvent> published = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            try {
+                DecodedEvent decoded = decode(event);
+                if (decoded.batch() != null) {
+                    treeNotificationService.publish(decoded.batch());
+                } else {
+                    treeNotificationService.publish(decoded.notifications().get(0));
+                }
+                published.add(decoded);
+            } catch (JsonProcessingException | RuntimeException e) {
+                park(event, now, e);
+            }
+        }
+
+        List<DecodedEvent> recorded = record(published, now);
+        nodeSearchService.recordChanges(recorded.stream().flatMap(event -> event.notifications().stream()).toList());
+
+        List<Long> ids = new ArrayList<>(recorded.size());
+        for (DecodedEvent decoded : recorded) {
+            ids.add(decoded.event().getId());
+            lagTimer.record(Duration.between(decoded.event().getCreatedAt(), now));
+        }
+        outboxEventRepository.deleteAllByIdInBatch(ids);
+        dispatchedCounter.increment(ids.size());
+        return events.size();
+    }
+
+    /**
+     * Writes the changelog entries of all events with one multi-row insert. If that fails, every event is recorded
+     * on its own so only the events whose entries cannot be written are parked. Transient failures such as
+     * deadlocks roll back the whole batch, which is retried on the next poll.
+     */
+    private List<DecodedEvent> record(List<DecodedEvent> events, Instant now) {
+        try {
+            changelogService.recordAll(events.stream().flatMap(event -> event.notifications().stream()).toList());
+            return events;
+        } catch (TransientDataAccessException e) {
+            throw e;
+        } catch (DataAccessException e) {
+            log.warn("Recording the changelog of {} outbox events failed, recording them one by one", events.size(), e);
+        }
+
+        List<DecodedEvent> recorded = new ArrayList<>(events.size());
+        for (DecodedEvent event : events) {
+            try {
+                changelogService.recordAll(event.notifications());
+                recorded.add(event);
+            } catch (TransientDataAccessException e) {
+                throw e;
+            } catch (DataAccessException e) {
+                park(event.event(), now, e);
+            }
+        }
+        return recorded;
+    }
+
+    private DecodedEvent decode(OutboxEvent event) throws JsonProcessingException {
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+        if (payload.has(BATCH_EVENTS_FIELD)) {
+            TreeUpdateBatch batch = objectMapper.convertValue(payload, TreeUpdateBatch.class);
+            return new DecodedEvent(event, batch, batch.getEvents());
+        }
+        TreeUpdateNotification notification = objectMapper.convertValue(payload, TreeUpdateNotification.class);
+        return new DecodedEvent(event, null, List.of(notification));
+    }
+
+    private void park(OutboxEvent event, Instant now, Exception cause) {
+        log.error("Parking outbox event {} of tree {}", event.getId(), event.getTreeId(), cause);
+        event.setFailedAt(now);
+        event.setLastError(StringUtils.abbreviate(cause.toString(), MAX_ERROR_LENGTH));
+        failedCounter.increment();
+    }
+
+    private void refreshCounts() {
+        Instant now = Instant.now();
+        if (countedAt.plus(COUNT_REFRESH_INTERVAL).isAfter(now)) {
+            return;
+        }
+        countedAt = now;
+        pending.set(outboxEventRepository.countByFailedAtIsNull());
+        parked.set(outboxEventRepository.countByFailedAtIsNotNull());
+    }
+
+    private record DecodedEvent(OutboxEvent event, TreeUpdateBatch batch, List<TreeUpdateNotification> notifications) {
+    }
+}
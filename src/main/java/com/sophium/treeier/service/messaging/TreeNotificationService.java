@@ -1,20 +1,72 @@
 package com.sophium.treeier.service.messaging;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophium.treeier.dto.TreeUpdateBatch;
 import com.sophium.treeier.dto.TreeUpdateNotification;
-import com.sophium.treeier.service.ChangelogService;
+import com.sophium.treeier.entity.OutboxEvent;
+import com.sophium.treeier.repository.OutboxEventRepository;
+import com.sophium.treeier.service.cache.TreeSnapshotCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class TreeNotificationService {
 
-    private final SimpMessagingTemplate messagingTemplate;
-    private final ChangelogService changelogService;
+    private final TreeUpdatePublisher treeUpdatePublisher;
+    private final OutboxEventRepository outboxEventRepository;
+    private final TreeSnapshotCache treeSnapshotCache;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Stores the notification in the outbox as part of the caller's transaction.
+     * {@link OutboxDispatcher} publishes it and records the changelog entry once the transaction has committed.
+     */
+    @Transactional
     public void notify(TreeUpdateNotification notification) {
-        messagingTemplate.convertAndSend("/topic/tree/" + notification.getTreeId(), notification);
-        changelogService.record(notification);
+        treeSnapshotCache.invalidate(notification.getTreeId());
+        outboxEventRepository.save(OutboxEvent.builder()
+            .treeId(notification.getTreeId())
+            .payload(serialize(notification))
+            .createdAt(Instant.now())
+            .build());
+    }
+
+    /**
+     * Stores the notifications of one multi-operation change as a single outbox event, published as one frame.
+     */
+    @Transactional
+    public void notifyAll(Long treeId, List<TreeUpdateNotification> notifications) {
+        treeSnapshotCache.invalidate(treeId);
+        outboxEventRepository.save(OutboxEvent.builder()
+            .treeId(treeId)
+            .payload(serialize(treeId, new TreeUpdateBatch(treeId, notifications)))
+            .createdAt(Instant.now())
+            .build());
+    }
+
+    public void publish(TreeUpdateNotification notification) {
+        treeUpdatePublisher.publish(notification);
+    }
+
+    public void publish(TreeUpdateBatch batch) {
+        treeUpdatePublisher.publishAll(batch.getTreeId(), batch.getEvents());
+    }
+
+    private String serialize(TreeUpdateNotification notification) {
+        return serialize(notification.getTreeId(), notification);
+    }
+
+    private String serialize(Long treeId, Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize notification for tree " + treeId, e);
+        }
     }
 }
@@ -0,0 +1,188 @@
+package com.sophium.treeier.service.messaging;
+
+import com.sophium.treeier.config.messaging.properties.TreeUpdatePublisherProperties;
+import com.sophium.treeier.config.threads.BackgroundThreads;
+import com.sophium.treeier.dto.OperationType;
+import com.sophium.treeier.dto.TreeUpdateBatch;
+import com.sophium.treeier.dto.TreeUpdateNotification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes tree updates to {@code /topic/tree/{id}}, merging the events of one tree that arrive within the
+ * configured window into a single {@link TreeUpdateBatch} frame. Repeated updates of a node collapse into the latest
+ * one, and updates of a node deleted later in the same window are dropped.
+ */
+@Slf4j
+@Component
+public class TreeUpdatePublisher {
+
+    private static final String TOPIC_PREFIX = "/topic/tree/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Map<Long, PendingFrame> pendingFrames = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final Counter framesCounter;
+    private final Counter coalescedCounter;
+    private final DistributionSummary batchSizeSummary;
+
+    public TreeUpdatePublisher(SimpMessagingTemplate messagingTemplate,
+                               TreeUpdatePublisherProperties properties,
+                               MeterRegistry meterRegistry,
+                               BackgroundThreads backgroundThreads) {
+        this.messagingTemplate = messagingTemplate;
+        this.windowMillis = properties.getWindow().toMillis();
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.scheduler = windowMillis > 0
+            ? Executors.newSingleThreadScheduledExecutor(backgroundThreads.factory("tree-update-publisher"))
+            : null;
+
+        this.framesCounter = Counter.builder("treeier.websocket.frames")
+            .description("Tree update frames sent to subscribers")
+            .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("treeier.websocket.events.coalesced")
+            .description("Tree update events merged away before sending")
+            .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("treeier.websocket.frame.events")
+            .description("Events per tree update frame")
+            .register(meterRegistry);
+    }
+
+    public void publish(TreeUpdateNotification notification) {
+        if (scheduler == null) {
+            send(notification.getTreeId(), notification, 1);
+            return;
+        }
+
+        Long treeId = notification.getTreeId();
+        pendingFrames.compute(treeId, (id, frame) -> {
+            if (frame == null) {
+                frame = new PendingFrame();
+                scheduler.schedule(() -> flush(id), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            frame.add(notification);
+            if (frame.size() == maxBatchSize) {
+                scheduler.execute(() -> flush(id));
+            }
+            return frame;
+        });
+    }
+
+    /**
+     * Publishes events that belong together; they always end up in the same frame. Events already pending for the
+     * tree are sent first when adding the group would take their frame past {@code maxBatchSize}, so only a group
+     * that is larger than the limit on its own produces an oversized frame.
+     */
+    public void publishAll(Long treeId, List<TreeUpdateNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        if (scheduler == null) {
+            send(treeId, new TreeUpdateBatch(treeId, notifications), notifications.size());
+            return;
+        }
+
+        pendingFrames.compute(treeId, (id, frame) -> {
+            if (frame != null && frame.size() + notifications.size() > maxBatchSize) {
+                PendingFrame full = frame;
+                scheduler.execute(() -> send(id, full));
+                frame = null;
+            }
+            if (frame == null) {
+                frame = new PendingFrame();
+                scheduler.schedule(() -> flush(id), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            notifications.forEach(frame::add);
+            if (frame.size() >= maxBatchSize) {
+                scheduler.execute(() -> flush(id));
+            }
+            return frame;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        new ArrayList<>(pendingFrames.keySet()).forEach(this::flush);
+    }
+
+    void flush(Long treeId) {
+        PendingFrame frame = pendingFrames.remove(treeId);
+        if (frame != null) {
+            send(treeId, frame);
+        }
+    }
+
+    private void send(Long treeId, PendingFrame frame) {
+        List<TreeUpdateNotification> events = frame.events();
+        coalescedCounter.increment(frame.received - events.size());
+        send(treeId, new TreeUpdateBatch(treeId, events), events.size());
+    }
+
+    private void send(Long treeId, Object payload, int eventCount) {
+        try {
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + treeId, payload);
+            framesCounter.increment();
+            batchSizeSummary.record(eventCount);
+        } catch (RuntimeException e) {
+            log.error("Failed to publish update frame for tree {}", treeId, e);
+        }
+    }
+
+    /**
+     * Events of one tree waiting for the window to close. Only accessed inside {@code pendingFrames.compute} or
+     * after the frame has been removed from the map, so it needs no locking of its own.
+     */
+    private static final class PendingFrame {
+
+        private final Map<Object, TreeUpdateNotification> events = new LinkedHashMap<>();
+        private int received;
+        private int sequence;
+
+        void add(TreeUpdateNotification notification) {
+            received++;
+            OperationType operation = notification.getOperationType();
+            if (operation == OperationType.NODE_UPDATED && notification.getNodeId() != null) {
+                UpdateKey key = new UpdateKey(notification.getNodeId());
+                events.remove(key);
+                events.put(key, notification);
+                return;
+            }
+            if (operation == OperationType.NODE_DELETED && notification.getDeletedNodeIds() != null) {
+                notification.getDeletedNodeIds().forEach(nodeId -> events.remove(new UpdateKey(nodeId)));
+            }
+            events.put(sequence++, notification);
+        }
+
+        int size() {
+            return events.size();
+        }
+
+        List<TreeUpdateNotification> events() {
+            return new ArrayList<>(events.values());
+        }
+    }
+
+    private record UpdateKey(Long nodeId) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.sophium.treeier.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over node titles and descriptions. Terms are kept in a sorted dictionary, so every query
+ * term matches as a prefix with one range lookup instead of storing n-grams. All query terms must match; a term
+ * found in the title scores higher than one found in the description, and a whole-word match higher than a prefix.
+ * <p>
+ * Reads may run concurrently with writes. Writes for different nodes may run concurrently as long as no node is
+ * removed at the same time, which {@link NodeSearchService} guarantees by applying changes from a single thread.
+ */
+class NodeSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int TITLE_SCORE = 4;
+    private static final int DESCRIPTION_SCORE = 1;
+    private static final int WHOLE_WORD_SCORE = 2;
+
+    private final NavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, IndexedNode> nodes = new ConcurrentHashMap<>();
+
+    void put(long nodeId, long treeId, String title, String description) {
+        IndexedNode node = new IndexedNode(treeId, title, terms(title), terms(description));
+        IndexedNode previous = nodes.put(nodeId, node);
+        if (previous != null) {
+            removePostings(nodeId, previous, node);
+        }
+        addPostings(nodeId, node.titleTerms());
+        addPostings(nodeId, node.descriptionTerms());
+    }
+
+    void remove(long nodeId) {
+        IndexedNode previous = nodes.remove(nodeId);
+        if (previous != null) {
+            removePostings(nodeId, previous, null);
+        }
+    }
+
+    void removeTree(long treeId) {
+        List<Long> treeNodes = new ArrayList<>();
+        nodes.forEach((nodeId, node) -> {
+            if (node.treeId() == treeId) {
+                treeNodes.add(nodeId);
+            }
+        });
+        treeNodes.forEach(this::remove);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns up to {@code limit} best matching nodes of the trees accepted by {@code treeFilter}, best first.
+     */
+    List<Hit> search(String query, int limit, LongPredicate treeFilter) {
+        String[] queryTerms = terms(query);
+        if (queryTerms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Long, Integer> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Integer> termScores = match(queryTerm, scores);
+            if (termScores.isEmpty()) {
+                return List.of();
+            }
+            scores = termScores;
+        }
+
+        Comparator<Hit> ranking = Comparator.comparingInt(Hit::score).thenComparing(Hit::nodeId, Comparator.reverseOrder());
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, ranking);
+        Map<Long, Boolean> acceptedTrees = new HashMap<>();
+        scores.forEach((nodeId, score) -> {
+            IndexedNode node = nodes.get(nodeId);
+            if (node == null || !acceptedTrees.computeIfAbsent(node.treeId(), treeFilter::test)) {
+                return;
+            }
+            best.add(new Hit(nodeId, node.treeId(), node.title(), score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(ranking.reversed());
+        return hits;
+    }
+
+    /**
+     * Scores every node having a term that starts with {@code queryTerm}. When {@code candidates} is given, only
+     * those nodes are considered and their previous score is carried over.
+     */
+    private Map<Long, Integer> match(String queryTerm, Map<Long, Integer> candidates) {
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Set<Long>> posting : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, true).entrySet()) {
+            String term = posting.getKey();
+            for (Long nodeId : posting.getValue()) {
+                Integer previousScore = candidates != null ? candidates.get(nodeId) : Integer.valueOf(0);
+                IndexedNode node = nodes.get(nodeId);
+                if (previousScore == null || node == null) {
+                    continue;
+                }
+                int score = node.score(term) + (term.equals(queryTerm) ? WHOLE_WORD_SCORE : 0);
+                scores.merge(nodeId, previousScore + score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void addPostings(long nodeId, String[] terms) {
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(nodeId);
+        }
+    }
+
+    private void removePostings(long nodeId, IndexedNode previous, IndexedNode current) {
+        for (String[] terms : List.of(previous.titleTerms(), previous.descriptionTerms())) {
+            for (String term : terms) {
+                if (current != null && current.contains(term)) {
+                    continue;
+                }
+                Set<Long> nodeIds = postings.get(term);
+                if (nodeIds != null && nodeIds.remove(nodeId) && nodeIds.isEmpty()) {
+                    postings.remove(term, nodeIds);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits text into distinct lower-case words, in order of first occurrence.
+     */
+    static String[] terms(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return terms.toArray(String[]::new);
+    }
+
+    record Hit(long nodeId, long treeId, String title, int score) {
+    }
+
+    private record IndexedNode(long treeId, String title, String[] titleTerms, String[] descriptionTerms) {
+
+        private IndexedNode {
+            titleTerms = sorted(titleTerms);
+            descriptionTerms = sorted(descriptionTerms);
+        }
+
+        boolean contains(String term) {
+            return Arrays.binarySearch(titleTerms, term) >= 0 || Arrays.binarySearch(descriptionTerms, term) >= 0;
+        }
+
+        int score(String term) {
+            return (Arrays.binarySearch(titleTerms, term) >= 0 ? TITLE_SCORE : 0)
+                + (Arrays.binarySearch(descriptionTerms, term) >= 0 ? DESCRIPTION_SCORE : 0);
+        }
+
+        private static String[] sorted(String[] terms) {
+            String[] copy = terms.clone();
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.sophium.treeier.service.search;
+
+import com.sophium.treeier.config.search.properties.NodeSearchProperties;
+import com.sophium.treeier.dto.NodePathItemDto;
+import com.sophium.treeier.dto.NodeSearchHitDto;
+import com.sophium.treeier.dto.TreeUpdateNotification;
+import com.sophium.treeier.entity.NodeSearchChange;
+import com.sophium.treeier.exception.NotFoundException;
+import com.sophium.treeier.repository.NodeJpaRepository;
+import com.sophium.treeier.repository.NodeRepository;
+import com.sophium.treeier.repository.NodeSearchChangeRepository;
+import com.sophium.treeier.repository.TreeJpaRepository;
+import com.sophium.treeier.service.cache.NodePathCache;
+import com.sophium.treeier.service.security.AuthorizationContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Full-text search over node titles and descriptions of all trees, answered from a {@link NodeSearchIndex}.
+ * <p>
+ * Every instance keeps its own index. It is rebuilt tree by tree in parallel once the application is ready and
+ * afterward follows the {@code node_search_change} feed, which is written in the transactions that change nodes
+ * and polled by id on every instance. The touched nodes are reloaded in batches, so whatever the order of changes,
+ * each node ends up indexed as it is in the database, or removed when it no longer belongs to a live tree. Feed
+ * rows older than {@code changeRetention} are purged; an instance that was down longer rebuilds on startup anyway.
+ * Ancestor paths are not indexed but taken from {@link NodePathCache} for the returned hits only, which
+ * keeps moves from having to re-index whole subtrees.
+ */
+@Slf4j
+@Service
+public class NodeSearchService {
+
+    private static final int RELOAD_BATCH_SIZE = 1000;
+    private static final int PURGE_BATCH_SIZE = 10_000;
+
+    /**
+     * Identity ids may commit out of order, so every refresh rereads this many ids below the highest one seen.
+     */
+    private static final long ID_LOOKBACK = 1000;
+
+    private final NodeJpaRepository nodeRepository;
+    private final TreeJpaRepository treeRepository;
+    private final NodeRepository pathRepository;
+    private final NodePathCache nodePathCache;
+    private final NodeSearchChangeRepository changeRepository;
+    private final AuthorizationContext authorizationContext;
+    private final NodeSearchProperties properties;
+
+    private final NodeSearchIndex index = new NodeSearchIndex();
+    private final NavigableSet<Long> appliedChangeIds = new TreeSet<>();
+    private long maxAppliedChangeId;
+    private volatile boolean ready;
+
+    public NodeSearchService(NodeJpaRepository nodeRepository,
+                             TreeJpaRepository treeRepository,
+                             NodeRepository pathRepository,
+                             NodePathCache nodePathCache,
+                             NodeSearchChangeRepository changeRepository,
+                             AuthorizationContext authorizationContext,
+                             NodeSearchProperties properties) {
+        this.nodeRepository = nodeRepository;
+        this.treeRepository = treeRepository;
+        this.pathRepository = pathRepository;
+        this.nodePathCache = nodePathCache;
+        this.changeRepository = changeRepository;
+        this.authorizationContext = authorizationContext;
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the best matching nodes, restricted to the trees the current user can edit when {@code editableOnly}
+     * is set. Every tree can be viewed by any authenticated user.
+     */
+    public List<NodeSearchHitDto> search(String query, int limit, boolean editableOnly) {
+        if (query == null || query.trim().length() < properties.getMinQueryLength()) {
+            return List.of();
+        }
+
+        Map<Long, Boolean> editableTrees = new HashMap<>();
+        List<NodeSearchIndex.Hit> hits = index.search(query, Math.min(limit, properties.getMaxResults()),
+            treeId -> !editableOnly || editableTrees.computeIfAbsent(treeId, this::canEdit));
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<NodePathItemDto>> paths = findPaths(hits.stream().map(NodeSearchIndex.Hit::nodeId).toList());
+        List<NodeSearchHitDto> results = new ArrayList<>(hits.size());
+        for (NodeSearchIndex.Hit hit : hits) {
+            results.add(NodeSearchHitDto.builder()
+                .nodeId(hit.nodeId())
+                .treeId(hit.treeId())
+                .title(hit.title())
+                .path(paths.getOrDefault(hit.nodeId(), List.of()))
+                .canEdit(editableTrees.computeIfAbsent(hit.treeId(), this::canEdit))
+                .score(hit.score())
+                .build());
+        }
+        return results;
+    }
+
+    /**
+     * Appends the nodes touched by dispatched updates to the change feed, in the caller's transaction.
+     */
+    public void recordChanges(List<TreeUpdateNotification> notifications) {
+        Map<Long, Set<Long>> nodeIdsByTree = new HashMap<>();
+        for (TreeUpdateNotification notification : notifications) {
+            Set<Long> nodeIds = nodeIdsByTree.computeIfAbsent(notification.getTreeId(), id -> new LinkedHashSet<>());
+            if (notification.getNodeId() != null) {
+                nodeIds.add(notification.getNodeId());
+            }
+            if (notification.getCreatedNodeIds() != null) {
+                nodeIds.addAll(notification.getCreatedNodeIds());
+            }
+            if (notification.getDeletedNodeIds() != null) {
+                nodeIds.addAll(notification.getDeletedNodeIds());
+            }
+        }
+        nodeIdsByTree.forEach(changeRepository::insertNodeChanges);
+    }
+
+    /**
+     * Appends nodes created without an outbox event, e.g. by a fork, to the change feed.
+     */
+    public void onNodesCreated(Long treeId, Collection<Long> nodeIds) {
+        changeRepository.insertNodeChanges(treeId, nodeIds);
+    }
+
+    public void onTreeDeleted(Long treeId) {
+        changeRepository.insertTreeDeleted(treeId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() throws InterruptedException {
+        long start = System.nanoTime();
+        // changes committed while the trees are read are applied again by the first refresh
+        maxAppliedChangeId = changeRepository.findMaxId();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Object[] tree : treeRepository.findAllRootNodeIds()) {
+            long treeId = ((Number) tree[0]).longValue();
+            long rootNodeId = ((Number) tree[1]).longValue();
+            tasks.add(() -> {
+                indexTree(treeId, rootNodeId);
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getRebuildParallelism());
+        try {
+            for (Future<Void> task : executor.invokeAll(tasks)) {
+                try {
+                    task.get();
+                } catch (Exception e) {
+                    log.error("Failed to index a tree for node search", e);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        ready = true;
+        log.info("Indexed {} nodes of {} trees for search in {} ms",
+            index.size(), tasks.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Applies new entries of the change feed. Runs on a single thread and only after the rebuild, so the index has
+     * one writer.
+     */
+    @Scheduled(fixedDelayString = "${treeier.search.nodes.refresh-interval:PT0.5S}")
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+
+        long afterId = Math.max(0, maxAppliedChangeId - ID_LOOKBACK);
+        List<NodeSearchChange> changes;
+        do {
+            changes = changeRepository.findAfter(afterId, RELOAD_BATCH_SIZE);
+            apply(changes);
+            if (!changes.isEmpty()) {
+                afterId = changes.get(changes.size() - 1).getId();
+            }
+        } while (changes.size() == RELOAD_BATCH_SIZE);
+        appliedChangeIds.headSet(maxAppliedChangeId - ID_LOOKBACK).clear();
+    }
+
+    @Scheduled(fixedDelayString = "${treeier.search.nodes.purge-interval:PT1M}")
+    public void purgeChanges() {
+        Instant cutoff = Instant.now().minus(properties.getChangeRetention());
+        while (changeRepository.deleteOlderThan(cutoff, PURGE_BATCH_SIZE) == PURGE_BATCH_SIZE) {
+            log.debug("Purged {} node search changes", PURGE_BATCH_SIZE);
+        }
+    }
+
+    private void apply(List<NodeSearchChange> changes) {
+        Set<Long> nodeIds = new LinkedHashSet<>();
+        for (NodeSearchChange change : changes) {
+            if (!appliedChangeIds.add(change.getId())) {
+                continue;
+            }
+            maxAppliedChangeId = Math.max(maxAppliedChangeId, change.getId());
+            if (change.getNodeId() == null) {
+                index.removeTree(change.getTreeId());
+            } else {
+                nodeIds.add(change.getNodeId());
+            }
+        }
+        if (!nodeIds.isEmpty()) {
+            reindex(nodeIds);
+        }
+    }
+
+    private void indexTree(long treeId, long rootNodeId) {
+        for (Object[] node : nodeRepository.findSearchDocuments(rootNodeId)) {
+            index.put(((Number) node[0]).longValue(), treeId, (String) node[1], (String) node[2]);
+        }
+    }
+
+    private void reindex(Set<Long> nodeIds) {
+        Set<Long> missing = new HashSet<>(nodeIds);
+        for (Object[] node : nodeRepository.findSearchDocumentsByIdIn(nodeIds)) {
+            long nodeId = ((Number) node[0]).longValue();
+            index.put(nodeId, ((Number) node[1]).longValue(), (String) node[2], (String) node[3]);
+            missing.remove(nodeId);
+        }
+        missing.forEach(index::remove);
+    }
+
+    // A tree deleted since it was indexed is only dropped on the next refresh
+    private boolean canEdit(Long treeId) {
+        try {
+            return authorizationContext.canEditTree(treeId);
+        } catch (NotFoundException e) {
+            return false;
+        }
+    }
+
+    // Cached paths end with the node itself, hits only carry its ancestors
+    private Map<Long, List<NodePathItemDto>> findPaths(List<Long> nodeIds) {
+        Map<Long, List<NodePathItemDto>> paths = new HashMap<>();
+        nodePathCache.getAll(nodeIds, pathRepository::findPaths)
+            .forEach((nodeId, path) -> paths.put(nodeId, path.subList(0, path.size() - 1)));
+        return paths;
+    }
+}
@@ -0,0 +1,155 @@
+package com.sophium.treeier.service.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory typeahead index over user names and emails. Every query term has to be a prefix of a word of the name
+ * or the email; the first word of the name ranks above later ones, which rank above email words. Users are also
+ * kept ordered by name for listing without a query.
+ * <p>
+ * Reads are lock-free. Writes are rare, since users are only ever added, and are serialized.
+ */
+class UserSearchIndex {
+
+    private static final Comparator<IndexedUser> BY_NAME = Comparator.comparing(IndexedUser::sortKey)
+        .thenComparingLong(IndexedUser::id);
+
+    private final NavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, IndexedUser> users = new ConcurrentHashMap<>();
+    private final NavigableSet<IndexedUser> usersByName = new ConcurrentSkipListSet<>(BY_NAME);
+
+    synchronized void put(long id, String name, String email) {
+        IndexedUser user = new IndexedUser(id, name, email, NodeSearchIndex.terms(name), NodeSearchIndex.terms(email));
+        IndexedUser previous = users.put(id, user);
+        if (previous != null) {
+            usersByName.remove(previous);
+            for (String term : previous.terms()) {
+                Set<Long> ids = postings.get(term);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    postings.remove(term, ids);
+                }
+            }
+        }
+        usersByName.add(user);
+        for (String term : user.terms()) {
+            postings.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    int size() {
+        return users.size();
+    }
+
+    /**
+     * Returns the matches ranked {@code offset} to {@code offset + limit}, best first.
+     */
+    List<IndexedUser> search(String query, int offset, int limit) {
+        String[] queryTerms = NodeSearchIndex.terms(query);
+        if (queryTerms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        Set<Long> candidates = null;
+        for (String queryTerm : queryTerms) {
+            Set<Long> matches = prefixMatches(queryTerm);
+            if (candidates == null || matches.size() < candidates.size()) {
+                candidates = matches;
+            }
+        }
+
+        Comparator<ScoredUser> ranking = Comparator.comparingInt(ScoredUser::score).reversed()
+            .thenComparing(ScoredUser::user, BY_NAME);
+        int window = offset + limit;
+        PriorityQueue<ScoredUser> best = new PriorityQueue<>(window + 1, ranking.reversed());
+        for (Long id : candidates) {
+            IndexedUser user = users.get(id);
+            int score = user != null ? user.score(queryTerms) : 0;
+            if (score == 0) {
+                continue;
+            }
+            best.add(new ScoredUser(user, score));
+            if (best.size() > window) {
+                best.poll();
+            }
+        }
+
+        List<ScoredUser> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        return ranked.stream().skip(offset).map(ScoredUser::user).toList();
+    }
+
+    List<IndexedUser> list(int offset, int limit) {
+        List<IndexedUser> page = new ArrayList<>(limit);
+        Iterator<IndexedUser> iterator = usersByName.iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    private Set<Long> prefixMatches(String queryTerm) {
+        Set<Long> ids = new HashSet<>();
+        postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, true).values().forEach(ids::addAll);
+        return ids;
+    }
+
+    record IndexedUser(long id, String name, String email, String[] nameTerms, String[] emailTerms) {
+
+        private String sortKey() {
+            return name != null ? name.toLowerCase(Locale.ROOT) : "";
+        }
+
+        private List<String> terms() {
+            List<String> terms = new ArrayList<>(List.of(nameTerms));
+            terms.addAll(List.of(emailTerms));
+            return terms;
+        }
+
+        /**
+         * Sums the best match of every query term, or returns zero when some term matches no word.
+         */
+        private int score(String[] queryTerms) {
+            int total = 0;
+            for (String queryTerm : queryTerms) {
+                int best = 0;
+                for (int i = 0; i < nameTerms.length; i++) {
+                    best = Math.max(best, match(nameTerms[i], queryTerm, i == 0 ? 4 : 3));
+                }
+                for (String emailTerm : emailTerms) {
+                    best = Math.max(best, match(emailTerm, queryTerm, 1));
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        private static int match(String term, String queryTerm, int weight) {
+            if (!term.startsWith(queryTerm)) {
+                return 0;
+            }
+            return term.length() == queryTerm.length() ? weight + 1 : weight;
+        }
+    }
+
+    private record ScoredUser(IndexedUser user, int score) {
+    }
+}
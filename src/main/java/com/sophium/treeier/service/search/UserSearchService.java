@@ -0,0 +1,131 @@
+package com.sophium.treeier.service.search;
+
+import com.sophium.treeier.config.search.properties.UserSearchProperties;
+import com.sophium.treeier.dto.UserDto;
+import com.sophium.treeier.entity.User;
+import com.sophium.treeier.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Typeahead user search answered from a {@link UserSearchIndex}. The index is loaded once the application is ready;
+ * users registered here are added when their transaction commits, and users registered through other instances are
+ * picked up by a periodic read of the newest ids. Until the first load completes, searches go to the database.
+ */
+@Slf4j
+@Service
+public class UserSearchService {
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    /**
+     * Identity ids may commit out of order, so every refresh rereads a few ids below the highest one seen.
+     */
+    private static final long ID_LOOKBACK = 100;
+
+    private final UserRepository userRepository;
+    private final UserSearchProperties properties;
+
+    private final UserSearchIndex index = new UserSearchIndex();
+    private final AtomicLong maxIndexedId = new AtomicLong();
+    private volatile boolean ready;
+
+    public UserSearchService(UserRepository userRepository, UserSearchProperties properties) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Returns one page of the users matching {@code query} best, or of all users ordered by name when the query is
+     * empty.
+     */
+    public List<UserDto> search(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, properties.getMaxPageSize()));
+        long start = (long) Math.max(0, page) * pageSize;
+        if (start >= properties.getMaxResults()) {
+            return List.of();
+        }
+        int offset = (int) start;
+        int limit = Math.min(pageSize, properties.getMaxResults() - offset);
+
+        boolean emptyQuery = query == null || query.isBlank();
+        if (!ready) {
+            List<User> users = emptyQuery
+                ? userRepository.findAll(PageRequest.of(offset / pageSize, pageSize, Sort.by("name", "id"))).getContent()
+                : userRepository.searchByEmailOrName(query.trim()).stream().skip(offset).limit(limit).toList();
+            return users.stream().map(user -> toDto(user.getId(), user.getName(), user.getEmail())).toList();
+        }
+
+        List<UserSearchIndex.IndexedUser> users = emptyQuery
+            ? index.list(offset, limit)
+            : index.search(query, offset, limit);
+        return users.stream().map(user -> toDto(user.id(), user.name(), user.email())).toList();
+    }
+
+    public void onUserCreated(User user) {
+        long id = user.getId();
+        String name = user.getName();
+        String email = user.getEmail();
+        Runnable add = () -> add(id, name, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add.run();
+                }
+            });
+        } else {
+            add.run();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        loadUsersAfter(0);
+        ready = true;
+        log.info("Indexed {} users for search in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${treeier.search.users.refresh-interval:PT30S}")
+    public void refresh() {
+        if (ready) {
+            loadUsersAfter(Math.max(0, maxIndexedId.get() - ID_LOOKBACK));
+        }
+    }
+
+    private void loadUsersAfter(long afterId) {
+        List<Object[]> users;
+        do {
+            users = userRepository.findSearchEntriesAfter(afterId, Limit.of(LOAD_BATCH_SIZE));
+            for (Object[] user : users) {
+                afterId = ((Number) user[0]).longValue();
+                add(afterId, (String) user[1], (String) user[2]);
+            }
+        } while (users.size() == LOAD_BATCH_SIZE);
+    }
+
+    private void add(long id, String name, String email) {
+        index.put(id, name, email);
+        maxIndexedId.accumulateAndGet(id, Math::max);
+    }
+
+    private static UserDto toDto(long id, String name, String email) {
+        return UserDto.builder()
+            .id(id)
+            .name(name)
+            .email(email)
+            .build();
+    }
+}
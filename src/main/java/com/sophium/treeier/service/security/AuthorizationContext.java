@@ -0,0 +1,62 @@
+package com.sophium.treeier.service.security;
+
+import com.sophium.treeier.entity.Tree;
+import com.sophium.treeier.entity.User;
+import com.sophium.treeier.exception.NotFoundException;
+import com.sophium.treeier.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+import static com.sophium.treeier.util.AuthUtil.getAuthenticatedUserEmail;
+
+/**
+ * The authenticated user, resolved at most once per request and shared by every service the request passes through.
+ * Tree permissions are answered from the {@link TreeAclCache}.
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class AuthorizationContext {
+
+    private final UserRepository userRepository;
+    private final TreeAclCache treeAclCache;
+
+    private User currentUser;
+    private boolean currentUserResolved;
+
+    public Optional<User> findCurrentUser() {
+        if (!currentUserResolved) {
+            currentUser = userRepository.findByEmail(getAuthenticatedUserEmail()).orElse(null);
+            currentUserResolved = true;
+        }
+        return Optional.ofNullable(currentUser);
+    }
+
+    public User getCurrentUser() {
+        return findCurrentUser()
+            .orElseThrow(() -> new NotFoundException("User not found with email: " + getAuthenticatedUserEmail()));
+    }
+
+    /**
+     * Replaces the resolved user, e.g. after the user was registered during this request.
+     */
+    public void setCurrentUser(User user) {
+        this.currentUser = user;
+        this.currentUserResolved = true;
+    }
+
+    public boolean canEdit(Tree tree) {
+        return canEditTree(tree.getId());
+    }
+
+    public boolean canEditTree(Long treeId) {
+        return treeAclCache.get(treeId).canEdit(getCurrentUser().getId());
+    }
+
+    public boolean isOwner(Tree tree) {
+        return treeAclCache.get(tree.getId()).isOwner(getCurrentUser().getId());
+    }
+}
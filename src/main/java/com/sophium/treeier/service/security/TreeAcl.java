@@ -0,0 +1,27 @@
+package com.sophium.treeier.service.security;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Owner and editor ids of one tree. Editor ids are kept as a sorted primitive array and searched with binary search.
+ */
+public final class TreeAcl {
+
+    private final Long ownerId;
+    private final long[] editorIds;
+
+    public TreeAcl(Long ownerId, Collection<Long> editorIds) {
+        this.ownerId = ownerId;
+        this.editorIds = editorIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    public boolean isOwner(Long userId) {
+        return userId != null && Objects.equals(ownerId, userId);
+    }
+
+    public boolean canEdit(Long userId) {
+        return isOwner(userId) || (userId != null && Arrays.binarySearch(editorIds, userId) >= 0);
+    }
+}
@@ -0,0 +1,46 @@
+package com.sophium.treeier.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.sophium.treeier.config.cache.properties.TreeAclCacheProperties;
+import com.sophium.treeier.exception.NotFoundException;
+import com.sophium.treeier.repository.TreeJpaRepository;
+import com.sophium.treeier.service.cache.CacheSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import static com.sophium.treeier.util.Constants.TREE_NOT_FOUND;
+
+/**
+ * Bounded per-tree cache of {@link TreeAcl}s, loaded with two id-only queries instead of the editors collection.
+ * <p>
+ * Changes evict the entry only on the instance that made them. Other instances keep acting on the old ACL, so a
+ * revoked editor can still edit through them, until the entry expires after {@code expire-after-write}.
+ */
+@Component
+public class TreeAclCache {
+
+    public static final String CACHE_NAME = "treeAcls";
+
+    private final TreeJpaRepository treeRepository;
+    private final Cache<Long, TreeAcl> cache;
+
+    public TreeAclCache(TreeJpaRepository treeRepository, TreeAclCacheProperties properties, MeterRegistry meterRegistry) {
+        this.treeRepository = treeRepository;
+        this.cache = CacheSupport.sizeBounded(CACHE_NAME, properties.getMaxSize(), properties.getExpireAfterWrite(),
+            meterRegistry);
+    }
+
+    public TreeAcl get(Long treeId) {
+        return cache.get(treeId, this::load);
+    }
+
+    public void invalidate(Long treeId) {
+        CacheSupport.evictNowAndAfterCompletion(() -> cache.invalidate(treeId));
+    }
+
+    private TreeAcl load(Long treeId) {
+        Long ownerId = treeRepository.findOwnerId(treeId)
+            .orElseThrow(() -> new NotFoundException(String.format(TREE_NOT_FOUND, treeId)));
+        return new TreeAcl(ownerId, treeRepository.findEditorIds(treeId));
+    }
+}
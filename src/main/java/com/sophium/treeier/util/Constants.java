@@ -17,5 +17,11 @@ public final class Constants {
     public static final String REQUIRED_FIELD = "%s is a required field";
     public static final String UNKNOWN_ERROR_OCCURRED = "Unknown error occurred";
     public static final String USER_CANNOT_EDIT_THIS_TREE = "User cannot edit this tree";
+    public static final String ROOT_NODE_CANNOT_BE_CHANGED = "The root node %d cannot be moved or deleted";
+    public static final String OPERATION_FAILED = "Operation %d failed: %s";
+    public static final String INVALID_CURSOR = "Invalid page cursor '%s'";
+    public static final String INVALID_SORT_PROPERTY = "Trees cannot be sorted by '%s'";
+    public static final String TOO_MANY_NODES_REQUESTED = "At most %d nodes can be requested at once";
+    public static final String TREE_IS_BUSY = "Tree '%s' is being modified by another request, please retry";
 
 }
@@ -159,3 +159,9 @@ INSERT INTO closure_entity (ancestor, descendant, depth, parent, root) VALUES
 
 INSERT INTO comment(author_id, text, node_id, created_at)
 VALUES (1, 'test comment', 1000, NOW());
+
+-- Node depths
+UPDATE nodes n
+    INNER JOIN closure_entity c ON c.ancestor = n.root AND c.descendant = n.id
+SET n.depth = c.depth
+WHERE n.depth IS NULL;
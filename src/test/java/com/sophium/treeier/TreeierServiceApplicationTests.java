@@ -3,7 +3,7 @@ package com.sophium.treeier;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "treeier.node-id.worker-id=0")
 class TreeierServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,133 @@
+package com.sophium.treeier.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop load test of the tree read and node write endpoints against a running instance.
+ * <p>
+ * Start the application once with platform threads and once with {@code -Pvirtual-threads} (Java 21+), keeping
+ * {@code DB_POOL_SIZE} the same, and run against each:
+ * <pre>
+ * mvn test -Dtest=TreeEndpointsBenchmark \
+ *     -Dbenchmark.base-url=http://localhost:8080 -Dbenchmark.session=&lt;JSESSIONID&gt; \
+ *     -Dbenchmark.tree-id=1 -Dbenchmark.node-id=2 [-Dbenchmark.concurrency=200] [-Dbenchmark.duration=PT30S]
+ * </pre>
+ * Each scenario prints its throughput and p50/p99/max latency.
+ */
+@EnabledIfSystemProperty(named = "benchmark.base-url", matches = ".+")
+class TreeEndpointsBenchmark {
+
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private final String baseUrl = System.getProperty("benchmark.base-url");
+    private final String session = System.getProperty("benchmark.session", "");
+    private final long treeId = Long.getLong("benchmark.tree-id", 1L);
+    private final long nodeId = Long.getLong("benchmark.node-id", 2L);
+    private final int concurrency = Integer.getInteger("benchmark.concurrency", 200);
+    private final Duration duration = Duration.parse(System.getProperty("benchmark.duration", "PT30S"));
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 10)))
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    @Test
+    void treeRead() throws Exception {
+        run("GET /api/trees/{id}", i -> request("/api/trees/" + treeId).GET().build());
+    }
+
+    @Test
+    void nodeWrite() throws Exception {
+        run("PUT /api/trees/{id}/node/{nodeId}", i -> request("/api/trees/" + treeId + "/node/" + nodeId)
+            .header("Content-Type", "application/json")
+            .PUT(HttpRequest.BodyPublishers.ofString("{\"title\":\"benchmark " + i + "\"}"))
+            .build());
+    }
+
+    private void run(String scenario, IntFunction<HttpRequest> requests) throws Exception {
+        drive(requests, WARMUP);
+        Result result = drive(requests, duration);
+
+        long[] latencies = result.latenciesMicros();
+        Arrays.sort(latencies);
+        System.out.printf("%-36s threads=%d requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+            scenario, concurrency, latencies.length, result.errors(),
+            latencies.length / (double) duration.toMillis() * 1000,
+            percentile(latencies, 0.50) / 1000.0,
+            percentile(latencies, 0.99) / 1000.0,
+            latencies.length > 0 ? latencies[latencies.length - 1] / 1000.0 : 0);
+    }
+
+    private Result drive(IntFunction<HttpRequest> requests, Duration runFor) throws Exception {
+        long deadline = System.nanoTime() + runFor.toNanos();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>(concurrency);
+            for (int w = 0; w < concurrency; w++) {
+                int worker = w;
+                futures.add(workers.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    int i = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = requests.apply(worker * 1_000_000 + i++);
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        latencies.add((System.nanoTime() - start) / 1_000);
+                    }
+                    return latencies;
+                }));
+            }
+
+            List<Long> all = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                all.addAll(future.get());
+            }
+            return new Result(all.stream().mapToLong(Long::longValue).toArray(), errors.get());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Cookie", "JSESSIONID=" + session);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private record Result(long[] latenciesMicros, long errors) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.sophium.treeier.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Measures moving a large subtree back and forth between two parents on different levels, so every move also
+ * shifts the depth of the whole subtree.
+ * <p>
+ * Builds its own tree: root, a parent {@code P} and under it a subtree {@code S} with {@code benchmark.fanout}
+ * children that have {@code benchmark.leaves} children each, then alternates {@code S} between {@code P} and root.
+ * <pre>
+ * mvn test -Dtest=TreeMoveBenchmark \
+ *     -Dbenchmark.base-url=http://localhost:8080 -Dbenchmark.session=&lt;JSESSIONID&gt; \
+ *     [-Dbenchmark.fanout=50] [-Dbenchmark.leaves=100] [-Dbenchmark.moves=50]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.base-url", matches = ".+")
+class TreeMoveBenchmark {
+
+    private static final int WARMUP_MOVES = 5;
+
+    private final String baseUrl = System.getProperty("benchmark.base-url");
+    private final String session = System.getProperty("benchmark.session", "");
+    private final int fanout = Integer.getInteger("benchmark.fanout", 50);
+    private final int leaves = Integer.getInteger("benchmark.leaves", 100);
+    private final int moves = Integer.getInteger("benchmark.moves", 50);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void moveLargeSubtree() throws Exception {
+        long treeId = send("POST", "/api/trees", "{\"title\":\"move benchmark\"}").get("id").asLong();
+        long rootId = send("GET", "/api/trees/" + treeId, null).get("nodes").get(0).get("id").asLong();
+
+        send("POST", "/api/trees/" + treeId + "/subtree", objectMapper.writeValueAsString(subtree()));
+        long parentId = send("GET", "/api/node/" + rootId + "/children", null).get("items").get(0).get("id").asLong();
+        long subtreeId = send("GET", "/api/node/" + parentId + "/children", null).get("items").get(0).get("id").asLong();
+
+        long[] latencies = new long[moves];
+        for (int i = -WARMUP_MOVES; i < moves; i++) {
+            long target = (i & 1) == 0 ? rootId : parentId;
+            long start = System.nanoTime();
+            send("PUT", "/api/trees/" + treeId + "/node/" + subtreeId + "/move/" + target, null);
+            if (i >= 0) {
+                latencies[i] = (System.nanoTime() - start) / 1_000;
+            }
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("move subtree of %d nodes: moves=%d mean=%.2f ms p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+            1 + fanout + fanout * leaves, moves,
+            Arrays.stream(latencies).average().orElse(0) / 1000.0,
+            latencies[(int) Math.ceil(0.50 * moves) - 1] / 1000.0,
+            latencies[(int) Math.ceil(0.99 * moves) - 1] / 1000.0,
+            latencies[moves - 1] / 1000.0);
+
+        send("DELETE", "/api/trees/" + treeId, null);
+    }
+
+    private ObjectNode subtree() {
+        ArrayNode branches = objectMapper.createArrayNode();
+        for (int b = 0; b < fanout; b++) {
+            ArrayNode leafNodes = objectMapper.createArrayNode();
+            for (int l = 0; l < leaves; l++) {
+                leafNodes.addObject().put("title", "leaf " + b + "." + l);
+            }
+            ObjectNode branch = branches.addObject().put("title", "branch " + b);
+            branch.set("children", leafNodes);
+        }
+
+        ObjectNode moved = objectMapper.createObjectNode().put("title", "S");
+        moved.set("children", branches);
+        ObjectNode parent = objectMapper.createObjectNode().put("title", "P");
+        parent.set("children", objectMapper.createArrayNode().add(moved));
+
+        ObjectNode request = objectMapper.createObjectNode();
+        request.set("nodes", objectMapper.createArrayNode().add(parent));
+        return request;
+    }
+
+    private JsonNode send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofMinutes(2))
+            .header("Cookie", "JSESSIONID=" + session)
+            .header("Content-Type", "application/json")
+            .method(method, body != null ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody())
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(method + " " + path + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response.body().isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,121 @@
+package com.sophium.treeier.repository;
+
+import com.sophium.treeier.entity.Tree;
+import com.sophium.treeier.exception.InvalidSortException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TreeLabelRepositoryTest {
+
+    private final TreeJpaRepository treeRepository = mock(TreeJpaRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TreeLabelRepository repository = new TreeLabelRepository(treeRepository, jdbcTemplate);
+
+    private final Map<String, String> labels = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        labels.put("env", "prod");
+        labels.put("team", "core");
+    }
+
+    @Test
+    void requiresEveryLabelWithItsOwnValueStartingFromTheMostSelective() {
+        treesPerLabel(5, 2);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(7L, 3L));
+        when(treeRepository.findAllById(List.of(7L, 3L))).thenReturn(List.of(tree(3L), tree(7L)));
+
+        Page<Tree> page = repository.findByLabels(labels, PageRequest.of(0, 20));
+
+        assertThat(page.getContent()).extracting(Tree::getId).containsExactly(7L, 3L);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        verify(jdbcTemplate).queryForList(
+            eq("SELECT STRAIGHT_JOIN t.id FROM tree_labels l0"
+                + " INNER JOIN tree_labels l1 ON l1.label_key = ? AND l1.label_value = ? AND l1.tree_id = l0.tree_id"
+                + " INNER JOIN trees t ON t.id = l0.tree_id AND t.deleted_at IS NULL"
+                + " WHERE l0.label_key = ? AND l0.label_value = ?"
+                + " ORDER BY t.id LIMIT ? OFFSET ?"),
+            eq(Long.class),
+            eq(new Object[]{"env", "prod", "team", "core", 20, 0L}));
+    }
+
+    @Test
+    void countsTheSameJoinWhenThePageIsFull() {
+        treesPerLabel(5, 2);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(3L));
+        when(treeRepository.findAllById(List.of(3L))).thenReturn(List.of(tree(3L)));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT STRAIGHT_JOIN COUNT(*) FROM tree_labels l0"), eq(Long.class),
+            eq(new Object[]{"env", "prod", "team", "core"}))).thenReturn(41L);
+
+        Page<Tree> page = repository.findByLabels(labels, PageRequest.of(2, 1, Sort.by("updatedAt").descending()));
+
+        assertThat(page.getTotalElements()).isEqualTo(41);
+        verify(jdbcTemplate).queryForList(
+            eq("SELECT STRAIGHT_JOIN t.id FROM tree_labels l0"
+                + " INNER JOIN tree_labels l1 ON l1.label_key = ? AND l1.label_value = ? AND l1.tree_id = l0.tree_id"
+                + " INNER JOIN trees t ON t.id = l0.tree_id AND t.deleted_at IS NULL"
+                + " WHERE l0.label_key = ? AND l0.label_value = ?"
+                + " ORDER BY t.updated_at DESC, t.id LIMIT ? OFFSET ?"),
+            eq(Long.class),
+            eq(new Object[]{"env", "prod", "team", "core", 1, 2L}));
+    }
+
+    @Test
+    void unusedLabelMatchesNoTree() {
+        treesPerLabel(5, 0);
+
+        Page<Tree> page = repository.findByLabels(labels, PageRequest.of(0, 20));
+
+        assertThat(page.getContent()).isEmpty();
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void rejectsUnknownSortProperty() {
+        treesPerLabel(5, 2);
+
+        assertThatThrownBy(() -> repository.findByLabels(labels, PageRequest.of(0, 20, Sort.by("owner"))))
+            .isInstanceOf(InvalidSortException.class);
+    }
+
+    private void treesPerLabel(long... counts) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < counts.length; i++) {
+                ResultSet row = mock(ResultSet.class);
+                when(row.getInt(1)).thenReturn(i);
+                when(row.getLong(2)).thenReturn(counts[i]);
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private static Tree tree(Long id) {
+        Tree tree = new Tree();
+        tree.setId(id);
+        return tree;
+    }
+}
@@ -0,0 +1,133 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.entity.Tree;
+import com.sophium.treeier.entity.User;
+import com.sophium.treeier.exception.NotFoundException;
+import com.sophium.treeier.repository.NodeRepository;
+import com.sophium.treeier.repository.TreeJpaRepository;
+import com.sophium.treeier.request.TreeOperationDto;
+import com.sophium.treeier.request.TreeOperationType;
+import com.sophium.treeier.service.cache.NodePathCache;
+import com.sophium.treeier.service.concurrency.TreeWriteLocks;
+import com.sophium.treeier.service.deletion.SubtreeDeletionService;
+import com.sophium.treeier.service.messaging.TreeNotificationService;
+import com.sophium.treeier.service.security.AuthorizationContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NodeServiceTest {
+
+    private static final long TREE_ID = 1L;
+    private static final long ROOT_ID = 1L;
+
+    @Mock
+    private NodeRepository nodeRepository;
+
+    @Mock
+    private TreeJpaRepository treeRepository;
+
+    @Mock
+    private TreeNotificationService treeNotificationService;
+
+    @Mock
+    private TreeStatisticsService treeStatisticsService;
+
+    @Mock
+    private TreeWriteLocks treeWriteLocks;
+
+    @Mock
+    private AuthorizationContext authorizationContext;
+
+    @Mock
+    private SubtreeDeletionService subtreeDeletionService;
+
+    @Mock
+    private NodePathCache nodePathCache;
+
+    @InjectMocks
+    private NodeService nodeService;
+
+    /**
+     * 1 ─┬─ 2 ── 4 ── 6
+     *    └─ 3 ── 5
+     */
+    @BeforeEach
+    void setUp() {
+        Tree tree = new Tree();
+        tree.setId(TREE_ID);
+        tree.setRootNodeId(ROOT_ID);
+        when(treeRepository.findById(TREE_ID)).thenReturn(Optional.of(tree));
+        when(authorizationContext.canEdit(tree)).thenReturn(true);
+        lenient().when(authorizationContext.getCurrentUser()).thenReturn(User.builder().email("a@b.c").name("A").build());
+        when(nodeRepository.findTreeOutline(ROOT_ID)).thenReturn(new ArrayList<>(List.of(
+            new Object[]{1L, null, 0, "root"},
+            new Object[]{2L, 1L, 1, "two"},
+            new Object[]{3L, 1L, 1, "three"},
+            new Object[]{4L, 2L, 2, "four"},
+            new Object[]{5L, 3L, 2, "five"},
+            new Object[]{6L, 4L, 3, "six"})));
+    }
+
+    @Test
+    void rejectsTheWholeBatchWhenALaterOperationTargetsADeletedNode() {
+        List<TreeOperationDto> operations = List.of(
+            new TreeOperationDto(TreeOperationType.DELETE, 3L, null),
+            new TreeOperationDto(TreeOperationType.MOVE, 2L, 5L));
+
+        assertThatThrownBy(() -> nodeService.applyOperations(TREE_ID, operations))
+            .isInstanceOf(NotFoundException.class)
+            .hasMessageStartingWith("Operation 1 failed");
+
+        verify(subtreeDeletionService, never()).delete(anyLong(), anyLong(), anyInt());
+        verify(nodeRepository, never()).moveSubtree(anyLong(), anyLong(), anyLong(), anyInt());
+        verify(treeStatisticsService, never()).recordLevelChanges(anyLong(), any());
+        verify(treeNotificationService, never()).notifyAll(anyLong(), any());
+    }
+
+    @Test
+    void appliesOperationsInOrderAndRecordsTheNetLevelChanges() {
+        when(subtreeDeletionService.delete(TREE_ID, 2L, 1)).thenReturn(List.of(2L));
+
+        // 4 leaves the subtree of 2 before 2 is deleted, so only 2 is removed
+        nodeService.applyOperations(TREE_ID, List.of(
+            new TreeOperationDto(TreeOperationType.MOVE, 4L, 3L),
+            new TreeOperationDto(TreeOperationType.DELETE, 2L, null)));
+
+        InOrder order = inOrder(nodeRepository, subtreeDeletionService);
+        order.verify(nodeRepository).moveSubtree(4L, 3L, ROOT_ID, 0);
+        order.verify(subtreeDeletionService).delete(TREE_ID, 2L, 1);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Integer, Integer>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(treeStatisticsService).recordLevelChanges(eq(TREE_ID), deltas.capture());
+        Map<Integer, Integer> changed = new HashMap<>(deltas.getValue());
+        changed.values().removeIf(delta -> delta == 0);
+        assertThat(changed).isEqualTo(Map.of(1, -1));
+        verify(treeNotificationService).notifyAll(eq(TREE_ID), any());
+    }
+}
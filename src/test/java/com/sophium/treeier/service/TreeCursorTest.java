@@ -0,0 +1,38 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TreeCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        TreeCursor cursor = new TreeCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000), 42L);
+
+        assertThat(TreeCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsCursorThatIsNotBase64() {
+        assertThatThrownBy(() -> TreeCursor.decode("not a cursor!"))
+            .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "42", "2024-03-01T12:30", "2024-03-01T12:30_abc", "yesterday_42"})
+    void rejectsDecodedValueThatIsNotAPosition(String value) {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> TreeCursor.decode(cursor))
+            .isInstanceOf(InvalidCursorException.class);
+    }
+}
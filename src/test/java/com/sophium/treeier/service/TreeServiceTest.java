@@ -0,0 +1,235 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.config.cache.properties.TreeSnapshotCacheProperties;
+import com.sophium.treeier.config.concurrency.properties.TreeLockProperties;
+import com.sophium.treeier.dto.NodeDto;
+import com.sophium.treeier.dto.TreeDto;
+import com.sophium.treeier.entity.NodeEntity;
+import com.sophium.treeier.entity.Tree;
+import com.sophium.treeier.exception.NodeLimitException;
+import com.sophium.treeier.mapper.TreeMapperImpl;
+import com.sophium.treeier.mapper.TreeNodeMapperImpl;
+import com.sophium.treeier.repository.NodeRepository;
+import com.sophium.treeier.repository.TreeJpaRepository;
+import com.sophium.treeier.request.CreateTreeNodeDto;
+import com.sophium.treeier.service.cache.TreeSnapshotCache;
+import com.sophium.treeier.service.concurrency.TreeWriteLocks;
+import com.sophium.treeier.service.id.NodeIdGenerator;
+import com.sophium.treeier.service.security.AuthorizationContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TreeServiceTest {
+
+    private static final long TREE_ID = 1L;
+    private static final long ROOT_ID = 1000L;
+
+    @Mock
+    private TreeJpaRepository treeRepository;
+
+    @Mock
+    private NodeRepository nodeRepository;
+
+    @Mock
+    private NodeService nodeService;
+
+    @Mock
+    private AuthorizationContext authorizationContext;
+
+    @Mock
+    private NodeIdGenerator nodeIdGenerator;
+
+    @Spy
+    private TreeMapperImpl treeMapper;
+
+    @Spy
+    private TreeNodeMapperImpl treeNodeMapper;
+
+    @Spy
+    private TreeAssembler treeAssembler = new TreeAssembler(new TreeNodeMapperImpl());
+
+    @Spy
+    private TreeSnapshotCache treeSnapshotCache =
+        new TreeSnapshotCache(new TreeSnapshotCacheProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private TreeWriteLocks treeWriteLocks = new TreeWriteLocks(new TreeLockProperties());
+
+    @InjectMocks
+    private TreeService treeService;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 1_000, 10_000})
+    void getTreeWithNodesMakesOneRepositoryCallPerTableRegardlessOfSize(int nodeCount) {
+        when(treeRepository.findById(TREE_ID)).thenReturn(Optional.of(tree()));
+        when(nodeRepository.findSubtreeNodes(ROOT_ID)).thenReturn(generateTree(nodeCount));
+
+        TreeDto result = treeService.getTreeWithNodes(TREE_ID);
+
+        assertThat(mockingDetails(treeRepository).getInvocations()).hasSize(1);
+        assertThat(mockingDetails(nodeRepository).getInvocations()).hasSize(1);
+        assertThat(result.getNodes()).hasSize(1);
+        assertThat(countNodes(result.getNodes().get(0))).isEqualTo(nodeCount);
+    }
+
+    @Test
+    void getTreeWithNodesLinksChildrenInIdOrder() {
+        when(treeRepository.findById(TREE_ID)).thenReturn(Optional.of(tree()));
+        when(nodeRepository.findSubtreeNodes(ROOT_ID)).thenReturn(List.of(
+            node(ROOT_ID, null, 0),
+            node(1001L, ROOT_ID, 1),
+            node(1002L, ROOT_ID, 1),
+            node(1003L, 1001L, 2),
+            node(1004L, 1001L, 2)
+        ));
+
+        NodeDto root = treeService.getTreeWithNodes(TREE_ID).getNodes().get(0);
+
+        assertThat(root.getChildren()).extracting(NodeDto::getId).containsExactly(1001L, 1002L);
+        assertThat(root.getChildren().get(0).getChildren()).extracting(NodeDto::getId).containsExactly(1003L, 1004L);
+        assertThat(root.getChildren().get(1).getChildren()).isEmpty();
+    }
+
+    @Test
+    void getTreeWithNodesIsServedFromCacheUntilInvalidated() {
+        when(treeRepository.findById(TREE_ID)).thenReturn(Optional.of(tree()));
+        when(nodeRepository.findSubtreeNodes(ROOT_ID)).thenReturn(generateTree(10));
+
+        TreeDto first = treeService.getTreeWithNodes(TREE_ID);
+        TreeDto second = treeService.getTreeWithNodes(TREE_ID);
+        assertThat(second).isSameAs(first);
+        verify(nodeRepository, times(1)).findSubtreeNodes(ROOT_ID);
+
+        treeSnapshotCache.invalidate(TREE_ID);
+        treeService.getTreeWithNodes(TREE_ID);
+        verify(nodeRepository, times(2)).findSubtreeNodes(ROOT_ID);
+    }
+
+    @Test
+    void concurrentNodeAdditionsToOneTreeKeepCountWithinLimit() throws Exception {
+        int threads = 16;
+        int attemptsPerThread = 25;
+        int freeSlots = 50;
+        AtomicInteger storedNodeCount = new AtomicInteger(10_000 - freeSlots);
+
+        when(authorizationContext.canEdit(any())).thenReturn(true);
+        when(treeRepository.findById(TREE_ID)).thenAnswer(invocation -> {
+            Tree tree = tree();
+            tree.setNodeCount(storedNodeCount.get());
+            return Optional.of(tree);
+        });
+        when(nodeService.createNode(eq(TREE_ID), any())).thenAnswer(invocation -> {
+            // deliberately non-atomic read-modify-write, like a read followed by a later commit
+            int current = storedNodeCount.get();
+            Thread.yield();
+            storedNodeCount.set(current + 1);
+            return invocation.getArgument(1);
+        });
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        try {
+                            inTransaction(() -> treeService.addNodeToTree(TREE_ID, new CreateTreeNodeDto()));
+                            created.incrementAndGet();
+                        } catch (NodeLimitException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(storedNodeCount.get()).isEqualTo(10_000);
+        assertThat(created.get()).isEqualTo(freeSlots);
+        assertThat(rejected.get()).isEqualTo(threads * attemptsPerThread - freeSlots);
+    }
+
+    private static void inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        }
+    }
+
+    private static Tree tree() {
+        return Tree.builder()
+            .id(TREE_ID)
+            .title("Tree")
+            .rootNodeId(ROOT_ID)
+            .build();
+    }
+
+    private static List<NodeEntity> generateTree(int nodeCount) {
+        List<NodeEntity> nodes = new ArrayList<>(nodeCount);
+        nodes.add(node(ROOT_ID, null, 0));
+        for (int i = 1; i < nodeCount; i++) {
+            long parentIndex = (i - 1) / 10;
+            nodes.add(node(ROOT_ID + i, ROOT_ID + parentIndex, 0));
+        }
+        return nodes;
+    }
+
+    private static NodeEntity node(Long id, Long parentId, int depth) {
+        return NodeEntity.builder()
+            .id(id)
+            .parentId(parentId)
+            .rootId(ROOT_ID)
+            .title("Node " + id)
+            .depth(depth)
+            .build();
+    }
+
+    private static int countNodes(NodeDto node) {
+        int count = 1;
+        for (NodeDto child : node.getChildren()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+}
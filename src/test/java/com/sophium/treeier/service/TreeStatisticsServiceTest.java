@@ -0,0 +1,64 @@
+package com.sophium.treeier.service;
+
+import com.sophium.treeier.repository.NodeRepository;
+import com.sophium.treeier.repository.TreeJpaRepository;
+import com.sophium.treeier.repository.TreeLevelCountRepository;
+import com.sophium.treeier.service.cache.TreeSnapshotCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TreeStatisticsServiceTest {
+
+    private static final long TREE_ID = 1L;
+
+    @Mock
+    private TreeJpaRepository treeRepository;
+
+    @Mock
+    private TreeLevelCountRepository treeLevelCountRepository;
+
+    @Mock
+    private NodeRepository nodeRepository;
+
+    @Mock
+    private TreeSnapshotCache treeSnapshotCache;
+
+    @InjectMocks
+    private TreeStatisticsService treeStatisticsService;
+
+    @Test
+    void appliesDeltasToAnExistingHistogram() {
+        when(treeLevelCountRepository.existsByTreeId(TREE_ID)).thenReturn(true);
+
+        treeStatisticsService.recordNodesRemoved(TREE_ID, Map.of(3, 2));
+
+        verify(treeRepository).addToNodeCount(TREE_ID, -2);
+        verify(treeLevelCountRepository).addToLevel(TREE_ID, 3, -2);
+        verify(treeRepository).refreshMaxDepth(TREE_ID);
+        verify(treeLevelCountRepository, never()).seedLevels(anyLong());
+    }
+
+    @Test
+    void seedsAMissingHistogramInsteadOfWritingAPartialOne() {
+        when(treeLevelCountRepository.existsByTreeId(TREE_ID)).thenReturn(false);
+
+        treeStatisticsService.recordNodesAdded(TREE_ID, Map.of(2, 1));
+
+        verify(treeLevelCountRepository).seedLevels(TREE_ID);
+        verify(treeRepository).refreshNodeCount(TREE_ID);
+        verify(treeRepository).refreshMaxDepth(TREE_ID);
+        verify(treeLevelCountRepository, never()).addToLevel(anyLong(), anyInt(), anyInt());
+    }
+}
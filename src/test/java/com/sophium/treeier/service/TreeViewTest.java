@@ -0,0 +1,78 @@
+package com.sophium.treeier.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TreeViewTest {
+
+    /**
+     * <pre>
+     * 1
+     * ├── 2
+     * │   └── 4
+     * │       └── 6
+     * └── 3
+     *     └── 5
+     * </pre>
+     */
+    private final TreeView view = new TreeView(1L, List.of(
+        row(1L, null, 0),
+        row(2L, 1L, 1),
+        row(3L, 1L, 1),
+        row(4L, 2L, 2),
+        row(5L, 3L, 2),
+        row(6L, 4L, 3)));
+
+    @Test
+    void detectsTargetsInsideTheMovedSubtree() {
+        assertThat(view.isInSubtree(6L, 2L)).isTrue();
+        assertThat(view.isInSubtree(2L, 2L)).isTrue();
+        assertThat(view.isInSubtree(5L, 2L)).isFalse();
+        assertThat(view.isInSubtree(2L, 6L)).isFalse();
+    }
+
+    @Test
+    void moveShiftsTheDepthOfTheWholeSubtree() {
+        assertThat(view.subtreeHeight(2L)).isEqualTo(2);
+
+        view.move(2L, 5L);
+
+        assertThat(view.parentOf(2L)).isEqualTo(5L);
+        assertThat(view.depthOf(2L)).isEqualTo(3);
+        assertThat(view.depthOf(4L)).isEqualTo(4);
+        assertThat(view.depthOf(6L)).isEqualTo(5);
+        assertThat(view.subtreeHeight(3L)).isEqualTo(4);
+        assertThat(view.isInSubtree(6L, 3L)).isTrue();
+        assertThat(view.countNodesPerDepth()).isEqualTo(Map.of(0, 1, 1, 1, 2, 1, 3, 1, 4, 1, 5, 1));
+    }
+
+    @Test
+    void removedSubtreeIsGoneForLaterOperations() {
+        List<Long> removed = view.removeSubtree(2L);
+
+        assertThat(removed).first().isEqualTo(2L);
+        assertThat(removed).containsExactlyInAnyOrder(2L, 4L, 6L);
+        assertThat(view.contains(4L)).isFalse();
+        assertThat(view.contains(3L)).isTrue();
+        assertThat(view.subtreeHeight(1L)).isEqualTo(2);
+        assertThat(view.countNodesPerDepth()).isEqualTo(Map.of(0, 1, 1, 1, 2, 1));
+    }
+
+    @Test
+    void nodeMovedOutOfASubtreeSurvivesItsRemoval() {
+        view.move(4L, 3L);
+        view.removeSubtree(2L);
+
+        assertThat(view.contains(4L)).isTrue();
+        assertThat(view.contains(6L)).isTrue();
+        assertThat(view.depthOf(6L)).isEqualTo(3);
+    }
+
+    private static Object[] row(Long id, Long parentId, int depth) {
+        return new Object[]{id, parentId, depth, "node " + id};
+    }
+}
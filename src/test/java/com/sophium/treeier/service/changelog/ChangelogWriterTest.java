@@ -0,0 +1,73 @@
+package com.sophium.treeier.service.changelog;
+
+import com.sophium.treeier.config.changelog.properties.ChangelogProperties;
+import com.sophium.treeier.dto.OperationType;
+import com.sophium.treeier.entity.ChangelogEntry;
+import com.sophium.treeier.repository.ChangelogBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ChangelogWriterTest {
+
+    private final ChangelogBatchRepository repository = mock(ChangelogBatchRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void writeAllSplitsEntriesIntoBatchSizedInserts() {
+        ChangelogWriter writer = writer(2);
+
+        writer.writeAll(List.of(entry(1L), entry(2L), entry(3L)));
+
+        verify(repository).insertAll(List.of(entry(1L), entry(2L)));
+        verify(repository).insertAll(List.of(entry(3L)));
+        assertThat(meterRegistry.get("treeier.changelog.written").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void writeAllWithoutEntriesIssuesNoInsert() {
+        writer(2).writeAll(List.of());
+
+        verify(repository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void failedInsertIsCountedAndRethrownToTheCaller() {
+        ChangelogWriter writer = writer(2);
+        doThrow(new QueryTimeoutException("timeout")).when(repository).insertAll(List.of(entry(3L)));
+
+        assertThatThrownBy(() -> writer.writeAll(List.of(entry(1L), entry(2L), entry(3L))))
+            .isInstanceOf(QueryTimeoutException.class);
+
+        assertThat(meterRegistry.get("treeier.changelog.written").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("treeier.changelog.failed").counter().count()).isEqualTo(1);
+    }
+
+    private ChangelogWriter writer(int batchSize) {
+        ChangelogProperties properties = new ChangelogProperties();
+        properties.setBatchSize(batchSize);
+        return new ChangelogWriter(repository, properties, meterRegistry);
+    }
+
+    private static ChangelogEntry entry(Long nodeId) {
+        return ChangelogEntry.builder()
+            .treeId(1L)
+            .nodeId(nodeId)
+            .operation(OperationType.NODE_UPDATED)
+            .authorEmail("author@example.com")
+            .authorName("Author")
+            .changedAt(Instant.EPOCH)
+            .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.sophium.treeier.service.id;
+
+import com.sophium.treeier.config.id.properties.NodeIdProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeNodeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeNodeIdGenerator.EPOCH + 1_000_000L;
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws InterruptedException {
+        SnowflakeNodeIdGenerator generator = new SnowflakeNodeIdGenerator(1, System::currentTimeMillis);
+        int threads = 8;
+        int idsPerThread = 50_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < idsPerThread; j++) {
+                    ids.add(generator.nextId());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ids).hasSize(threads * idsPerThread);
+    }
+
+    @Test
+    void sequenceOverflowWithinOneMillisecondKeepsIdsIncreasing() {
+        SnowflakeNodeIdGenerator generator = new SnowflakeNodeIdGenerator(0, () -> NOW);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long next = generator.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void clockMovingBackwardsDoesNotRepeatIds() {
+        long[] now = {NOW};
+        SnowflakeNodeIdGenerator generator = new SnowflakeNodeIdGenerator(0, () -> now[0]);
+
+        long beforeRollback = generator.nextId();
+        now[0] -= 5_000;
+
+        assertThat(generator.nextId()).isGreaterThan(beforeRollback);
+    }
+
+    @Test
+    void differentWorkersNeverCollide() {
+        SnowflakeNodeIdGenerator first = new SnowflakeNodeIdGenerator(1, () -> NOW);
+        SnowflakeNodeIdGenerator second = new SnowflakeNodeIdGenerator(2, () -> NOW);
+
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(first.nextId()).isNotEqualTo(second.nextId());
+        }
+    }
+
+    @Test
+    void idsStayWithinJavaScriptSafeIntegerRange() {
+        long year2040 = SnowflakeNodeIdGenerator.EPOCH + TimeUnit.DAYS.toMillis(365L * 16);
+        SnowflakeNodeIdGenerator generator = new SnowflakeNodeIdGenerator(SnowflakeNodeIdGenerator.MAX_WORKER_ID, () -> year2040);
+
+        assertThat(generator.nextId()).isLessThanOrEqualTo((1L << 53) - 1);
+    }
+
+    @Test
+    void rejectsWorkerIdOutOfRange() {
+        assertThatThrownBy(() -> new SnowflakeNodeIdGenerator(SnowflakeNodeIdGenerator.MAX_WORKER_ID + 1, System::currentTimeMillis))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refusesToStartWithoutWorkerId() {
+        assertThatThrownBy(() -> new SnowflakeNodeIdGenerator(new NodeIdProperties()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("treeier.node-id.worker-id");
+    }
+}
@@ -0,0 +1,78 @@
+package com.sophium.treeier.service.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sophium.treeier.config.messaging.properties.OutboxProperties;
+import com.sophium.treeier.dto.TreeUpdateNotification;
+import com.sophium.treeier.entity.OutboxEvent;
+import com.sophium.treeier.repository.OutboxEventRepository;
+import com.sophium.treeier.service.ChangelogService;
+import com.sophium.treeier.service.search.NodeSearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTest {
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final TreeNotificationService treeNotificationService = mock(TreeNotificationService.class);
+    private final ChangelogService changelogService = mock(ChangelogService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboxDispatcher dispatcher = new OutboxDispatcher(outboxEventRepository, treeNotificationService,
+        changelogService, mock(NodeSearchService.class), new ObjectMapper().findAndRegisterModules(),
+        mock(PlatformTransactionManager.class), new OutboxProperties(), meterRegistry);
+
+    @Test
+    void parksUnreadableEventsAndDispatchesTheRest() {
+        OutboxEvent unreadable = event(1L, "not json");
+        OutboxEvent unknownOperation = event(2L, "{\"treeId\":1,\"nodeId\":10,\"operationType\":\"NODE_RENAMED\"}");
+        OutboxEvent valid = event(3L, "{\"treeId\":1,\"nodeId\":11,\"operationType\":\"NODE_CREATED\"}");
+        when(outboxEventRepository.lockNextBatch(anyInt())).thenReturn(List.of(unreadable, unknownOperation, valid));
+
+        dispatcher.drain();
+
+        verify(treeNotificationService, times(1)).publish(any(TreeUpdateNotification.class));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        assertThat(unreadable.getFailedAt()).isNotNull();
+        assertThat(unknownOperation.getFailedAt()).isNotNull();
+        assertThat(valid.getFailedAt()).isNull();
+        assertThat(meterRegistry.get("treeier.outbox.failed").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void parksOnlyTheEventWhoseChangelogEntryCannotBeWritten() {
+        OutboxEvent rejected = event(1L, "{\"treeId\":1,\"nodeId\":10,\"operationType\":\"NODE_CREATED\"}");
+        OutboxEvent valid = event(2L, "{\"treeId\":1,\"nodeId\":11,\"operationType\":\"NODE_CREATED\"}");
+        when(outboxEventRepository.lockNextBatch(anyInt())).thenReturn(List.of(rejected, valid));
+        doThrow(new DataIntegrityViolationException("too long")).when(changelogService)
+            .recordAll(argThat(entries -> entries.stream().anyMatch(e -> e.getNodeId() == 10L)));
+
+        dispatcher.drain();
+
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(2L));
+        assertThat(rejected.getFailedAt()).isNotNull();
+        assertThat(valid.getFailedAt()).isNull();
+    }
+
+    private static OutboxEvent event(Long id, String payload) {
+        return OutboxEvent.builder()
+            .id(id)
+            .treeId(1L)
+            .payload(payload)
+            .createdAt(Instant.EPOCH)
+            .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.sophium.treeier.service.messaging;
+
+import com.sophium.treeier.config.messaging.properties.TreeUpdatePublisherProperties;
+import com.sophium.treeier.config.threads.BackgroundThreads;
+import com.sophium.treeier.dto.OperationType;
+import com.sophium.treeier.dto.TreeUpdateBatch;
+import com.sophium.treeier.dto.TreeUpdateNotification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class TreeUpdatePublisherTest {
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TreeUpdatePublisher publisher = publisher(Duration.ofHours(1));
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void mergesEventsOfOneTreeIntoSingleFrame() {
+        publisher.publish(event(OperationType.NODE_CREATED, 10L));
+        publisher.publish(event(OperationType.NODE_UPDATED, 10L));
+        publisher.publish(event(OperationType.NODE_UPDATED, 11L));
+        publisher.publish(event(OperationType.NODE_UPDATED, 10L).toBuilder().nodeTitle("latest").build());
+        verify(messagingTemplate, never()).convertAndSend(any(String.class), any(Object.class));
+
+        publisher.flush(1L);
+
+        TreeUpdateBatch frame = sentFrame();
+        assertThat(frame.getEvents())
+            .extracting(TreeUpdateNotification::getOperationType, TreeUpdateNotification::getNodeId)
+            .containsExactly(
+                tuple(OperationType.NODE_CREATED, 10L),
+                tuple(OperationType.NODE_UPDATED, 11L),
+                tuple(OperationType.NODE_UPDATED, 10L));
+        assertThat(frame.getEvents().get(2).getNodeTitle()).isEqualTo("latest");
+        assertThat(meterRegistry.get("treeier.websocket.events.coalesced").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("treeier.websocket.frame.events").summary().max()).isEqualTo(3);
+    }
+
+    @Test
+    void dropsUpdatesOfNodesDeletedInTheSameWindow() {
+        publisher.publish(event(OperationType.NODE_UPDATED, 10L));
+        publisher.publish(event(OperationType.NODE_UPDATED, 12L));
+        publisher.publish(event(OperationType.NODE_DELETED, 10L).toBuilder().deletedNodeIds(List.of(10L)).build());
+
+        publisher.flush(1L);
+
+        assertThat(sentFrame().getEvents())
+            .extracting(TreeUpdateNotification::getNodeId)
+            .containsExactly(12L, 10L);
+    }
+
+    @Test
+    void groupThatWouldOverfillTheFrameStartsANewOne() {
+        TreeUpdatePublisher limited = publisher(Duration.ofHours(1), 3);
+        limited.publish(event(OperationType.NODE_CREATED, 10L));
+        limited.publish(event(OperationType.NODE_CREATED, 11L));
+
+        limited.publishAll(1L, List.of(event(OperationType.NODE_MOVED, 12L), event(OperationType.NODE_MOVED, 13L)));
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, timeout(2_000)).convertAndSend(eq("/topic/tree/1"), payload.capture());
+        assertThat(((TreeUpdateBatch) payload.getValue()).getEvents())
+            .extracting(TreeUpdateNotification::getNodeId)
+            .containsExactly(10L, 11L);
+        limited.shutdown();
+    }
+
+    @Test
+    void zeroWindowSendsEveryEventImmediately() {
+        TreeUpdatePublisher direct = publisher(Duration.ZERO);
+        TreeUpdateNotification event = event(OperationType.NODE_UPDATED, 10L);
+
+        direct.publish(event);
+
+        verify(messagingTemplate).convertAndSend("/topic/tree/1", event);
+    }
+
+    private TreeUpdatePublisher publisher(Duration window) {
+        return publisher(window, new TreeUpdatePublisherProperties().getMaxBatchSize());
+    }
+
+    private TreeUpdatePublisher publisher(Duration window, int maxBatchSize) {
+        TreeUpdatePublisherProperties properties = new TreeUpdatePublisherProperties();
+        properties.setWindow(window);
+        properties.setMaxBatchSize(maxBatchSize);
+        return new TreeUpdatePublisher(messagingTemplate, properties, meterRegistry,
+            new BackgroundThreads(new MockEnvironment()));
+    }
+
+    private TreeUpdateBatch sentFrame() {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/tree/1"), payload.capture());
+        return (TreeUpdateBatch) payload.getValue();
+    }
+
+    private static TreeUpdateNotification event(OperationType operationType, Long nodeId) {
+        return TreeUpdateNotification.builder()
+            .treeId(1L)
+            .nodeId(nodeId)
+            .operationType(operationType)
+            .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.sophium.treeier.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NodeSearchIndexTest {
+
+    private final NodeSearchIndex index = new NodeSearchIndex();
+
+    @Test
+    void everyQueryTermMustMatchAsAPrefix() {
+        index.put(1L, 10L, "Quarterly budget", "Plans for the finance team");
+        index.put(2L, 10L, "Budget review", null);
+
+        assertThat(nodeIds(index.search("budg fin", 10, treeId -> true))).containsExactly(1L);
+        assertThat(nodeIds(index.search("BUDGET", 10, treeId -> true))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("budget marketing", 10, treeId -> true)).isEmpty();
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        index.put(1L, 10L, "Roadmap", "Release planning");
+        index.put(2L, 10L, "Release checklist", null);
+
+        assertThat(nodeIds(index.search("release", 10, treeId -> true))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceIndexedTerms() {
+        index.put(1L, 10L, "Draft", null);
+        index.put(1L, 10L, "Final", null);
+        index.put(2L, 20L, "Final notes", null);
+
+        assertThat(index.search("draft", 10, treeId -> true)).isEmpty();
+        assertThat(nodeIds(index.search("final", 10, treeId -> true))).containsExactlyInAnyOrder(1L, 2L);
+
+        index.remove(1L);
+        index.removeTree(20L);
+        assertThat(index.search("final", 10, treeId -> true)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void hitsAreFilteredByTreeAndLimited() {
+        for (long nodeId = 1; nodeId <= 5; nodeId++) {
+            index.put(nodeId, nodeId % 2, "Task " + nodeId, null);
+        }
+
+        List<NodeSearchIndex.Hit> hits = index.search("task", 2, treeId -> treeId == 1L);
+
+        assertThat(hits).hasSize(2).allMatch(hit -> hit.treeId() == 1L);
+    }
+
+    private static List<Long> nodeIds(List<NodeSearchIndex.Hit> hits) {
+        return hits.stream().map(NodeSearchIndex.Hit::nodeId).toList();
+    }
+}
@@ -0,0 +1,49 @@
+package com.sophium.treeier.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSearchIndexTest {
+
+    private final UserSearchIndex index = new UserSearchIndex();
+
+    @Test
+    void namePrefixesRankAboveEmailPrefixes() {
+        index.put(1L, "Anna Smith", "asmith@example.com");
+        index.put(2L, "Bob Jones", "anderson@example.com");
+        index.put(3L, "Carl Andrews", "carl@example.com");
+
+        assertThat(ids(index.search("an", 0, 10))).containsExactly(1L, 3L, 2L);
+        assertThat(ids(index.search("smith example", 0, 10))).containsExactly(1L);
+        assertThat(index.search("zed", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void searchAndListingArePaged() {
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, "User " + (char) ('a' + 5 - id), "user" + id + "@example.com");
+        }
+
+        assertThat(ids(index.search("user", 0, 2))).hasSize(2);
+        assertThat(ids(index.search("user", 4, 2))).hasSize(1);
+        assertThat(ids(index.list(0, 2))).containsExactly(5L, 4L);
+        assertThat(ids(index.list(4, 2))).containsExactly(1L);
+    }
+
+    @Test
+    void reindexingAUserReplacesItsTerms() {
+        index.put(1L, "Old Name", "user@example.com");
+        index.put(1L, "New Name", "user@example.com");
+
+        assertThat(index.search("old", 0, 10)).isEmpty();
+        assertThat(ids(index.search("new", 0, 10))).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    private static List<Long> ids(List<UserSearchIndex.IndexedUser> users) {
+        return users.stream().map(UserSearchIndex.IndexedUser::id).toList();
+    }
+}
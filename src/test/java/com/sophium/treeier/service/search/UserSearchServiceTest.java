@@ -0,0 +1,22 @@
+package com.sophium.treeier.service.search;
+
+import com.sophium.treeier.config.search.properties.UserSearchProperties;
+import com.sophium.treeier.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class UserSearchServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserSearchService userSearchService = new UserSearchService(userRepository, new UserSearchProperties());
+
+    @Test
+    void pageBeyondMaxResultsIsEmpty() {
+        assertThat(userSearchService.search("ann", 10, 100)).isEmpty();
+        assertThat(userSearchService.search("ann", Integer.MAX_VALUE, 100)).isEmpty();
+        verifyNoInteractions(userRepository);
+    }
+}